@@ -0,0 +1,68 @@
+package com.mmcneil.contactmanager.benchmark;
+
+import com.mmcneil.contactmanager.ContactmanagerApplication;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Starts the whole application for a benchmark, configured as in production (template caching on) except for the
+ * database: each context gets its own in-memory H2 database, migrated by Flyway, so forks and parameter sets never
+ * share data.
+ */
+final class BenchmarkApplication {
+
+    static final String PASSWORD = "benchmark-password";
+
+    // Contact's allocationSize: a pooled sequence value hands out the ids just below it
+    private static final int CONTACT_ID_ALLOCATION = 50;
+
+    private BenchmarkApplication() {
+    }
+
+    // Properties are passed as command line arguments so they override application.properties
+    static ConfigurableApplicationContext start(String... properties) {
+        // Devtools is on the classpath and would otherwise relaunch a main() caller (the load test) in a new thread
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> args = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--spring.thymeleaf.cache=true",
+            "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(ContactmanagerApplication.class).run(args.toArray(String[]::new));
+    }
+
+    static User createUser(ConfigurableApplicationContext context, String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword(context.getBean(PasswordEncoder.class).encode(PASSWORD));
+        user.setRoles(Set.of("USER"));
+        return context.getBean(UserRepository.class).save(user);
+    }
+
+    // Plain JDBC batches: seeding 100k contacts through JPA would take longer than the benchmark itself. Ids follow
+    // the existing rows, and the sequence is moved past them so contacts created through JPA afterwards don't collide
+    static void seedContacts(ConfigurableApplicationContext context, Long userId, int count) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long firstId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) + 1 from contact", Long.class);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (long id = firstId; id < firstId + count; id++) {
+            rows.add(new Object[] {id, userId, "Contact " + id, "contact" + id + "@example.com", String.format("555-%07d", id)});
+        }
+        jdbcTemplate.batchUpdate("insert into contact (id, user_id, name, email, phone) values (?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("alter sequence contact_seq restart with " + (firstId + count + CONTACT_ID_ALLOCATION));
+    }
+}
@@ -0,0 +1,94 @@
+package com.mmcneil.contactmanager.benchmark;
+
+import com.mmcneil.contactmanager.model.ContactView;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering contact-list.html through the application's Thymeleaf view, with the signed-in user and CSRF token a
+ * real request would carry, but without the filter chain and controller in front of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactListRenderBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int contacts;
+
+    private ConfigurableApplicationContext context;
+    private ServletContext servletContext;
+    private View view;
+    private Map<String, Object> model;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start();
+        servletContext = ((WebApplicationContext) context).getServletContext();
+        view = context.getBean("thymeleafViewResolver", ViewResolver.class).resolveViewName("contact-list", Locale.US);
+        List<ContactView> list = new ArrayList<>(contacts);
+        for (int i = 1; i <= contacts; i++) {
+            list.add(new ContactView((long) i, "Contact " + i, "contact" + i + "@example.com", String.format("555-%07d", i)));
+        }
+        model = Map.of("contacts", list);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String render() throws Exception {
+        // Set on every call: JMH may run setup and benchmark methods on different threads
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+            "benchmark", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        MockHttpServletRequest request = new MockHttpServletRequest(servletContext, "GET", "/contacts");
+        request.setAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, context);
+        request.setAttribute(CsrfToken.class.getName(), new DefaultCsrfToken("X-CSRF-TOKEN", "_csrf", "benchmark-token"));
+        // MockHttpServletResponse flushes and re-encodes on every write, which would dominate the measurement
+        StringWriter body = new StringWriter(64 * 1024);
+        view.render(model, request, new HttpServletResponseWrapper(new MockHttpServletResponse()) {
+            @Override
+            public PrintWriter getWriter() {
+                return new PrintWriter(body);
+            }
+        });
+        return body.toString();
+    }
+}
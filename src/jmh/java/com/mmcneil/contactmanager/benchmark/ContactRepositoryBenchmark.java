@@ -0,0 +1,61 @@
+package com.mmcneil.contactmanager.benchmark;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Loading one user's whole address book, as managed entities and as the read-only projection the list views use
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContactRepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int contacts;
+
+    private ConfigurableApplicationContext context;
+    private ContactRepository contactRepository;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        userId = BenchmarkApplication.createUser(context, "benchmark").getId();
+        BenchmarkApplication.seedContacts(context, userId, contacts);
+        contactRepository = context.getBean(ContactRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Contact> findByUserId() {
+        return contactRepository.findByUserId(userId);
+    }
+
+    @Benchmark
+    public List<ContactView> findViewsByUserId() {
+        return contactRepository.findViewsByUserId(userId);
+    }
+}
@@ -0,0 +1,393 @@
+package com.mmcneil.contactmanager.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-model HTTP load test. Boots the application on H2 (see {@link BenchmarkApplication}), seeds users and
+ * contacts, signs every user in once for the API (bearer token) and once for the pages (session cookie), then
+ * offers a weighted mix of REST CRUD and /contacts page requests at a fixed rate for each step in {@code rates}.
+ *
+ * <p>Requests are scheduled, not sent back to back: each has an intended start time on the rate's timeline, and
+ * its latency is measured from that time. When the server falls behind, queued requests are charged for the
+ * time they waited, so the histograms don't suffer from coordinated omission. The saturation point is the first
+ * step whose achieved throughput falls short of its rate or whose p99 takes off.
+ *
+ * <p>Arguments are {@code key=value}: rates (requests/s, comma separated), duration and warmup per step, clients
+ * (concurrent connections), users, contacts (per user). Server settings such as
+ * {@code -Dserver.tomcat.threads.max=50} can be passed as system properties. Per-step histograms are written to
+ * target/loadtest as .hgrm files (milliseconds) for plotting. Client and server share the JVM and its CPUs,
+ * so compare runs made on the same machine.
+ */
+public final class LoadTest {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final Pattern SESSION = Pattern.compile("JSESSIONID=([^;]+)");
+    private static final Path OUTPUT = Path.of("target", "loadtest");
+
+    enum Endpoint {
+        LIST_API("GET /api/contacts", 35),
+        GET_API("GET /api/contacts/{id}", 20),
+        CREATE_API("POST /api/contacts", 10),
+        UPDATE_API("PUT /api/contacts/{id}", 10),
+        DELETE_API("DELETE /api/contacts/{id}", 5),
+        LIST_PAGE("GET /contacts", 20);
+
+        final String label;
+        final int weight;
+
+        Endpoint(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+
+        static Endpoint pick(ThreadLocalRandom random) {
+            int roll = random.nextInt(100);
+            for (Endpoint endpoint : values()) {
+                roll -= endpoint.weight;
+                if (roll < 0) {
+                    return endpoint;
+                }
+            }
+            return LIST_API;
+        }
+    }
+
+    // One seeded user as a client sees it; the contact ids are the ones it may still read, update or delete
+    private static final class Session {
+
+        final String username;
+        final List<Long> contactIds;
+        String token;
+        String cookie;
+
+        Session(String username, List<Long> contactIds) {
+            this.username = username;
+            this.contactIds = contactIds;
+        }
+
+        synchronized Long anyContact(ThreadLocalRandom random) {
+            return contactIds.isEmpty() ? null : contactIds.get(random.nextInt(contactIds.size()));
+        }
+
+        // Removed before the DELETE is sent, so no other request picks a contact that is about to disappear
+        synchronized Long takeContact(ThreadLocalRandom random) {
+            if (contactIds.isEmpty()) {
+                return null;
+            }
+            int index = random.nextInt(contactIds.size());
+            Long id = contactIds.get(index);
+            contactIds.set(index, contactIds.get(contactIds.size() - 1));
+            contactIds.remove(contactIds.size() - 1);
+            return id;
+        }
+
+        synchronized void addContact(Long id) {
+            contactIds.add(id);
+        }
+    }
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final List<Session> sessions;
+    private final AtomicLong created = new AtomicLong();
+    private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicLong> errors = new EnumMap<>(Endpoint.class);
+
+    private LoadTest(String baseUrl, List<Session> sessions, ObjectMapper objectMapper) {
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.sessions = sessions;
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new Recorder(3));
+            errors.put(endpoint, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        List<Integer> rates = new ArrayList<>();
+        for (String rate : options.getOrDefault("rates", "50,100,200").split(",")) {
+            rates.add(Integer.parseInt(rate.trim()));
+        }
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "64"));
+        int users = Integer.parseInt(options.getOrDefault("users", "50"));
+        int contacts = Integer.parseInt(options.getOrDefault("contacts", "200"));
+
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(
+                "contactmanager.security.token.ttl=24h")) {
+            List<Session> sessions = seed(context, users, contacts);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadTest loadTest = new LoadTest("http://localhost:" + port, sessions, context.getBean(ObjectMapper.class));
+            loadTest.signIn();
+            Files.createDirectories(OUTPUT);
+            System.out.printf("%d users with %d contacts each, %d clients%n", users, contacts, clients);
+            for (int rate : rates) {
+                loadTest.runStep(rate, warmup, clients, false);
+                loadTest.report(rate, loadTest.runStep(rate, duration, clients, true), System.out);
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    // One password hash for everyone: BCrypt is deliberately slow and would dominate seeding
+    private static List<Session> seed(ConfigurableApplicationContext context, int users, int contacts) {
+        String password = context.getBean(PasswordEncoder.class).encode(BenchmarkApplication.PASSWORD);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<Session> sessions = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setUsername("load" + i);
+            user.setEmail("load" + i + "@example.com");
+            user.setPassword(password);
+            user.setRoles(Set.of("USER"));
+            Long userId = userRepository.save(user).getId();
+            BenchmarkApplication.seedContacts(context, userId, contacts);
+            List<Long> ids = context.getBean(JdbcTemplate.class)
+                .queryForList("select id from contact where user_id = ?", Long.class, userId);
+            sessions.add(new Session(user.getUsername(), new ArrayList<>(ids)));
+        }
+        return sessions;
+    }
+
+    private void signIn() throws IOException, InterruptedException {
+        for (Session session : sessions) {
+            String basic = Base64.getEncoder().encodeToString(
+                (session.username + ":" + BenchmarkApplication.PASSWORD).getBytes(StandardCharsets.UTF_8));
+            HttpResponse<String> token = send(HttpRequest.newBuilder(uri("/api/auth/token"))
+                .header("Authorization", "Basic " + basic)
+                .POST(HttpRequest.BodyPublishers.noBody()), 200);
+            session.token = objectMapper.readTree(token.body()).get("access_token").asText();
+
+            HttpResponse<String> loginPage = send(HttpRequest.newBuilder(uri("/login")).GET(), 200);
+            String anonymousCookie = cookie(loginPage);
+            Matcher csrf = CSRF.matcher(loginPage.body());
+            if (!csrf.find()) {
+                throw new IllegalStateException("No CSRF token on the login page");
+            }
+            String form = "username=" + encode(session.username) + "&password=" + encode(BenchmarkApplication.PASSWORD)
+                + "&_csrf=" + encode(csrf.group(1));
+            HttpResponse<String> login = send(HttpRequest.newBuilder(uri("/login"))
+                .header("Cookie", "JSESSIONID=" + anonymousCookie)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form)), 302);
+            // The session id changes on login (session fixation protection)
+            session.cookie = "JSESSIONID=" + cookie(login);
+        }
+    }
+
+    /**
+     * Offers {@code rate} requests per second for {@code duration} from {@code clients} threads. Each thread
+     * claims the next slot on the schedule, waits for its intended start if it is early and records the latency
+     * from that start, so time spent queued behind a slow server counts against the request.
+     */
+    private Map<Endpoint, Histogram> runStep(int rate, Duration duration, int clients, boolean record)
+            throws InterruptedException {
+        for (Recorder recorder : recorders.values()) {
+            recorder.reset();
+        }
+        errors.values().forEach(count -> count.set(0));
+        double interval = TimeUnit.SECONDS.toNanos(1) / (double) rate;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        AtomicLong slots = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for (int i = 0; i < clients; i++) {
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (true) {
+                    long intended = start + (long) (slots.getAndIncrement() * interval);
+                    if (intended >= end) {
+                        return;
+                    }
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    Endpoint endpoint = Endpoint.pick(random);
+                    boolean ok = call(endpoint, sessions.get(random.nextInt(sessions.size())), random);
+                    if (record) {
+                        recorders.get(endpoint).recordValue(System.nanoTime() - intended);
+                        if (!ok) {
+                            errors.get(endpoint).incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        // Requests queued at the end of the step still have to finish, however late
+        executor.awaitTermination(duration.toSeconds() + 300, TimeUnit.SECONDS);
+        Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = recorders.get(endpoint).getIntervalHistogram();
+            histogram.setStartTimeStamp(TimeUnit.NANOSECONDS.toMillis(start));
+            histogram.setEndTimeStamp(TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+            histograms.put(endpoint, histogram);
+        }
+        return histograms;
+    }
+
+    private boolean call(Endpoint endpoint, Session session, ThreadLocalRandom random) {
+        try {
+            return switch (endpoint) {
+                case LIST_API -> status(api(session, "/api/contacts").GET()) == 200;
+                case GET_API -> {
+                    Long id = session.anyContact(random);
+                    yield id == null || status(api(session, "/api/contacts/" + id).GET()) == 200;
+                }
+                case CREATE_API -> {
+                    HttpResponse<String> response = client.send(api(session, "/api/contacts")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(contactJson(created.incrementAndGet()))).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() != 201) {
+                        yield false;
+                    }
+                    session.addContact(objectMapper.readTree(response.body()).get("id").asLong());
+                    yield true;
+                }
+                case UPDATE_API -> {
+                    Long id = session.anyContact(random);
+                    yield id == null || status(api(session, "/api/contacts/" + id)
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(contactJson(id)))) == 200;
+                }
+                case DELETE_API -> {
+                    Long id = session.takeContact(random);
+                    yield id == null || status(api(session, "/api/contacts/" + id).DELETE()) == 200;
+                }
+                case LIST_PAGE -> status(HttpRequest.newBuilder(uri("/contacts")).header("Cookie", session.cookie).GET()) == 200;
+            };
+        } catch (IOException ex) {
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void report(int rate, Map<Endpoint, Histogram> histograms, PrintStream out) throws IOException {
+        Histogram total = new Histogram(3);
+        out.printf("%nOffered %d req/s%n", rate);
+        out.printf("%-26s %8s %7s %9s %9s %9s %9s %9s%n",
+            "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = histograms.get(endpoint);
+            total.add(histogram);
+            print(out, endpoint.label, histogram, errors.get(endpoint).get());
+            try (PrintStream file = new PrintStream(Files.newOutputStream(
+                    OUTPUT.resolve(rate + "-" + endpoint.name().toLowerCase() + ".hgrm")))) {
+                histogram.outputPercentileDistribution(file, 1_000_000.0);
+            }
+        }
+        total.setStartTimeStamp(histograms.get(Endpoint.LIST_API).getStartTimeStamp());
+        total.setEndTimeStamp(histograms.get(Endpoint.LIST_API).getEndTimeStamp());
+        print(out, "all", total, errors.values().stream().mapToLong(AtomicLong::get).sum());
+    }
+
+    private static void print(PrintStream out, String label, Histogram histogram, long errors) {
+        double seconds = (histogram.getEndTimeStamp() - histogram.getStartTimeStamp()) / 1000.0;
+        out.printf("%-26s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", label, histogram.getTotalCount(), errors,
+            histogram.getTotalCount() / seconds, millis(histogram.getValueAtPercentile(50)),
+            millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+            millis(histogram.getMaxValue()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private HttpRequest.Builder api(Session session, String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + session.token);
+    }
+
+    private int status(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(request.build().uri() + " returned " + response.statusCode());
+        }
+        return response;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static String cookie(HttpResponse<?> response) {
+        for (String header : response.headers().allValues("Set-Cookie")) {
+            Matcher matcher = SESSION.matcher(header);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        throw new IllegalStateException(response.uri() + " did not set a session cookie");
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String contactJson(long n) {
+        return "{\"name\":\"Load Contact " + n + "\",\"email\":\"load" + n + "@example.com\",\"phone\":\"555-"
+            + String.format("%07d", n % 10_000_000) + "\"}";
+    }
+}
@@ -0,0 +1,59 @@
+package com.mmcneil.contactmanager;
+
+import com.mmcneil.contactmanager.repository.CountingJdbcTemplate;
+import com.mmcneil.contactmanager.security.CustomUserDetailsService;
+import com.mmcneil.contactmanager.service.ContactEventService;
+import com.mmcneil.contactmanager.service.ContactListCache;
+import com.mmcneil.contactmanager.service.ContactPhoneService;
+import com.mmcneil.contactmanager.service.ContactSuggestService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Application metrics that Spring Boot can't discover by itself. HTTP timers, the Hikari pool, Hibernate
+ * statistics and JVM memory, GC and allocation metrics are all auto-configured.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // The in-memory caches are plain Caffeine caches rather than Spring caches, so they are bound by hand
+    @Bean
+    public MeterBinder cacheMetrics(CustomUserDetailsService userDetailsService, ContactListCache contactListCache,
+                                    ContactSuggestService contactSuggestService, ContactPhoneService contactPhoneService) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, userDetailsService.getCache(), "users");
+            CaffeineCacheMetrics.monitor(registry, contactListCache.getCache(), "contact-lists");
+            CaffeineCacheMetrics.monitor(registry, contactSuggestService.getCache(), "contact-suggest");
+            CaffeineCacheMetrics.monitor(registry, contactPhoneService.getCache(), "contact-phones");
+        };
+    }
+
+    // Replaces Boot's JdbcTemplate (and so the NamedParameterJdbcTemplate it wraps) so JDBC statements show up in
+    // the per-request SQL statement counts too
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties properties) {
+        JdbcTemplate jdbcTemplate = new CountingJdbcTemplate(dataSource);
+        JdbcProperties.Template template = properties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        return jdbcTemplate;
+    }
+
+    @Bean
+    public MeterBinder eventStreamMetrics(ContactEventService contactEventService) {
+        return registry -> Gauge.builder("contactmanager.events.subscribers", contactEventService,
+                ContactEventService::getSubscriberCount)
+            .description("Open Server-Sent Event streams")
+            .register(registry);
+    }
+}
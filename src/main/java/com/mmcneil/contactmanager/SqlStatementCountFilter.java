@@ -0,0 +1,132 @@
+package com.mmcneil.contactmanager;
+
+import com.mmcneil.contactmanager.repository.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Counts the SQL statements each request runs (see {@link SqlStatementCounter}), including the ones the
+ * security filters run to authenticate it. The count is recorded as {@code contactmanager.sql.statements} per
+ * endpoint, returned in the {@value #HEADER} header and logged as a warning once it goes over
+ * {@code contactmanager.sql.statement-budget}, which is usually an N+1 query sneaking in.
+ * <p>
+ * The header is final unless the response was committed before the request finished (a large or streamed
+ * body); it then holds the count from when the body was started.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-SQL-Statement-Count";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementCountFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int budget;
+
+    public SqlStatementCountFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${contactmanager.sql.statement-budget:20}") int budget) {
+        // Sliced tests (@WebMvcTest) pick up filters without metrics auto-configuration
+        this.meterRegistry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.budget = budget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementCounter.start();
+        try {
+            chain.doFilter(request, new CountingResponse(response));
+        } finally {
+            int count = SqlStatementCounter.stop();
+            if (!response.isCommitted()) {
+                response.setIntHeader(HEADER, count);
+            }
+            String uri = endpoint(request);
+            DistributionSummary.builder("contactmanager.sql.statements")
+                .description("SQL statements run per request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(count);
+            if (count > budget) {
+                log.warn("{} {} ran {} SQL statements, over the budget of {}", request.getMethod(), uri, count, budget);
+            }
+        }
+    }
+
+    // The mapped pattern rather than the raw path, so ids don't create a meter each
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    // Sets the header as the body is started, in case the response is committed before the filter finishes
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setCount();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setCount();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setCount();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            setCount();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            setCount();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            setCount();
+            super.sendRedirect(location);
+        }
+
+        private void setCount() {
+            if (!isCommitted()) {
+                setIntHeader(HEADER, SqlStatementCounter.current());
+            }
+        }
+    }
+}
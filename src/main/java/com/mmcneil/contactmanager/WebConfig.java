@@ -0,0 +1,35 @@
+package com.mmcneil.contactmanager;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import com.mmcneil.contactmanager.security.CurrentUserArgumentResolver;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<UserRepository> userRepository;
+
+    public WebConfig(ObjectProvider<UserRepository> userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    // Picked up by Boot's ObjectMapper. With open-in-view off there is no session while a response is written, so an
+    // unloaded lazy association serializes as null rather than throwing LazyInitializationException
+    @Bean
+    public Module hibernateModule() {
+        return new Hibernate6Module();
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new CurrentUserArgumentResolver(userRepository));
+    }
+}
@@ -0,0 +1,50 @@
+package com.mmcneil.contactmanager.controller;
+
+import com.mmcneil.contactmanager.security.AccessTokenAuthentication;
+import com.mmcneil.contactmanager.security.AccessTokenService;
+import com.mmcneil.contactmanager.security.AuthenticatedUser;
+import com.mmcneil.contactmanager.security.CurrentUser;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/auth/token")
+public class AuthTokenController {
+
+    private final AccessTokenService tokenService;
+
+    public AuthTokenController(AccessTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    public record TokenResponse(
+        @JsonProperty("access_token") String accessToken,
+        @JsonProperty("token_type") String tokenType,
+        @JsonProperty("expires_in") long expiresIn) {
+    }
+
+    // POST with HTTP Basic credentials to exchange them for a short-lived bearer token
+    @PostMapping
+    public TokenResponse issueToken(Authentication authentication, @CurrentUser AuthenticatedUser user) {
+        // Tokens can't mint tokens, otherwise one leaked token would never expire
+        if (authentication instanceof AccessTokenAuthentication) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Use your credentials to obtain a token");
+        }
+        AccessTokenService.IssuedToken issued = tokenService.issue(user);
+        return new TokenResponse(issued.token(), "Bearer", tokenService.getTtl().toSeconds());
+    }
+
+    // DELETE with the bearer token to revoke it before it expires
+    @DeleteMapping
+    public ResponseEntity<Void> revokeToken(Authentication authentication) {
+        if (!(authentication instanceof AccessTokenAuthentication tokenAuthentication)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No bearer token to revoke");
+        }
+        tokenService.revoke(tokenAuthentication.getToken());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -2,12 +2,10 @@ package com.mmcneil.contactmanager.controller;
 
 import com.mmcneil.contactmanager.exception.ContactNotFoundException;
 import com.mmcneil.contactmanager.model.Contact;
-import com.mmcneil.contactmanager.repository.ContactRepository;
-import com.mmcneil.contactmanager.repository.UserRepository;
-import com.mmcneil.contactmanager.model.User;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import com.mmcneil.contactmanager.security.AuthenticatedUser;
+import com.mmcneil.contactmanager.security.CurrentUser;
+import com.mmcneil.contactmanager.service.ContactListCache;
+import com.mmcneil.contactmanager.service.ContactService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -19,26 +17,18 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/contacts")
 public class ContactController {
 
-    private final ContactRepository contactRepository;
-    private final UserRepository userRepository;
+    private final ContactService contactService;
+    private final ContactListCache contactListCache;
 
     @Autowired
-    public ContactController(ContactRepository contactRepository, UserRepository userRepository) {
-        this.contactRepository = contactRepository;
-        this.userRepository = userRepository;
-    }
-
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+    public ContactController(ContactService contactService, ContactListCache contactListCache) {
+        this.contactService = contactService;
+        this.contactListCache = contactListCache;
     }
 
     @GetMapping
-public String showContactList(Model model) {
-    User user = getCurrentUser();
-    model.addAttribute("contacts", contactRepository.findByUser(user));
+public String showContactList(@CurrentUser AuthenticatedUser user, Model model) {
+    model.addAttribute("contacts", contactListCache.get(user.getId()).contacts());
     return "contact-list";
 }
 
@@ -53,6 +43,7 @@ public String showContactList(Model model) {
     @PostMapping
     public String addContact(@Valid @ModelAttribute Contact contact,
         BindingResult result,
+        @CurrentUser AuthenticatedUser user,
         Model model
     ) {
         if (result.hasErrors()) {
@@ -60,21 +51,15 @@ public String showContactList(Model model) {
             model.addAttribute("formMode", "create");
             return "contact-form";
         }
-        User user = getCurrentUser();
-contact.setUser(user);
-contactRepository.save(contact);
+        contactService.create(user.getId(), contact);
         return "redirect:/contacts";
     }
 
     @GetMapping("/edit/{id}")
-    public String showEditForm(@PathVariable Long id, Model model) {
-        User user = getCurrentUser();
-Contact contact = contactRepository.findById(id)
-    .orElseThrow(() -> new ContactNotFoundException(id));
-if (!contact.getUser().getId().equals(user.getId())) {
-    throw new ContactNotFoundException(id);
-}
-model.addAttribute("contact", contact);
+    public String showEditForm(@PathVariable Long id, @CurrentUser AuthenticatedUser user, Model model) {
+        Contact contact = contactService.findOwned(id, user.getId())
+            .orElseThrow(() -> new ContactNotFoundException(id));
+        model.addAttribute("contact", contact);
         model.addAttribute("formAction", "/contacts/edit/" + id);
         model.addAttribute("formMode", "edit");
         return "contact-form"; // reuse the same form for create/edit
@@ -85,6 +70,7 @@ model.addAttribute("contact", contact);
         @PathVariable Long id,
         @Valid @ModelAttribute Contact contact,
         BindingResult result,
+        @CurrentUser AuthenticatedUser user,
         Model model
     ) {
         if (result.hasErrors()) {
@@ -92,31 +78,17 @@ model.addAttribute("contact", contact);
             model.addAttribute("formMode", "edit");
             return "contact-form";
         }
-        // Fetch existing contact
-        User user = getCurrentUser();
-Contact existingContact = contactRepository.findById(id)
-    .orElseThrow(() -> new ContactNotFoundException(id));
-if (!existingContact.getUser().getId().equals(user.getId())) {
-    throw new ContactNotFoundException(id);
-}
-// Update fields
-existingContact.setName(contact.getName());
-existingContact.setEmail(contact.getEmail());
-existingContact.setPhone(contact.getPhone());
-contactRepository.save(existingContact);
-return "redirect:/contacts";
+        contactService.update(id, user.getId(), contact)
+            .orElseThrow(() -> new ContactNotFoundException(id));
+        return "redirect:/contacts";
     }
 
     // Misconception - assumed this should be a DELETE but HTML forms only know GET/POST so a DeleteMapping would be ignored in this case
     @PostMapping("/delete/{id}")
-    public String deleteContact(@PathVariable Long id) {
-        User user = getCurrentUser();
-Contact contact = contactRepository.findById(id)
-    .orElseThrow(() -> new ContactNotFoundException(id));
-if (!contact.getUser().getId().equals(user.getId())) {
-    throw new ContactNotFoundException(id);
-}
-contactRepository.deleteById(id);
-return "redirect:/contacts";
+    public String deleteContact(@PathVariable Long id, @CurrentUser AuthenticatedUser user) {
+        if (!contactService.delete(id, user.getId())) {
+            throw new ContactNotFoundException(id);
+        }
+        return "redirect:/contacts";
     }
 }
@@ -0,0 +1,49 @@
+package com.mmcneil.contactmanager.controller;
+
+import com.mmcneil.contactmanager.model.ContactDuplicateGroup;
+import com.mmcneil.contactmanager.model.ContactMergeRequest;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.security.AuthenticatedUser;
+import com.mmcneil.contactmanager.security.CurrentUser;
+import com.mmcneil.contactmanager.service.ContactDuplicateService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/contacts")
+public class ContactDuplicateController {
+
+    private final ContactDuplicateService duplicateService;
+
+    public ContactDuplicateController(ContactDuplicateService duplicateService) {
+        this.duplicateService = duplicateService;
+    }
+
+    // GET the duplicate groups found by the last scan
+    @GetMapping("/duplicates")
+    public List<ContactDuplicateGroup> getDuplicates(@CurrentUser AuthenticatedUser user) {
+        return duplicateService.findGroups(user.getId());
+    }
+
+    // POST to rescan the address book in the background; poll GET /duplicates for the result
+    @PostMapping("/duplicates/scan")
+    public ResponseEntity<Void> scanDuplicates(@CurrentUser AuthenticatedUser user) {
+        duplicateService.scanUserAsync(user.getId());
+        return ResponseEntity.accepted().build();
+    }
+
+    // POST to fold duplicates into one contact
+    @PostMapping("/merge")
+    public ContactView mergeContacts(@RequestBody ContactMergeRequest request, @CurrentUser AuthenticatedUser user) {
+        try {
+            return duplicateService.merge(user.getId(), request)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+}
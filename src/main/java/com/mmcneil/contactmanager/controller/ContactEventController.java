@@ -0,0 +1,30 @@
+package com.mmcneil.contactmanager.controller;
+
+import com.mmcneil.contactmanager.security.AuthenticatedUser;
+import com.mmcneil.contactmanager.security.CurrentUser;
+import com.mmcneil.contactmanager.service.ContactEventService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/contacts")
+public class ContactEventController {
+
+    private final ContactEventService contactEventService;
+
+    public ContactEventController(ContactEventService contactEventService) {
+        this.contactEventService = contactEventService;
+    }
+
+    // GET a Server-Sent Events stream of created/updated/deleted events for the user's contacts. Browsers send
+    // Last-Event-ID on reconnect to pick up where they left off
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                                   @CurrentUser AuthenticatedUser user) {
+        return contactEventService.subscribe(user.getId(), lastEventId);
+    }
+}
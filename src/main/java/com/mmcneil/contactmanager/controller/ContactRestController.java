@@ -1,62 +1,225 @@
 package com.mmcneil.contactmanager.controller;
 
+import com.mmcneil.contactmanager.exception.SyncTokenExpiredException;
+import com.mmcneil.contactmanager.importer.ContactImportException;
+import com.mmcneil.contactmanager.importer.ContactRecordReader;
+import com.mmcneil.contactmanager.importer.ImportFormat;
 import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactBatchRequest;
+import com.mmcneil.contactmanager.model.ContactBatchResult;
+import com.mmcneil.contactmanager.model.ContactChanges;
+import com.mmcneil.contactmanager.model.ContactCursor;
+import com.mmcneil.contactmanager.model.ContactImportResult;
+import com.mmcneil.contactmanager.model.ContactPage;
+import com.mmcneil.contactmanager.model.ContactView;
 import com.mmcneil.contactmanager.repository.ContactRepository;
-import com.mmcneil.contactmanager.model.User;
-import com.mmcneil.contactmanager.repository.UserRepository;
+import com.mmcneil.contactmanager.security.AuthenticatedUser;
+import com.mmcneil.contactmanager.security.CurrentUser;
+import com.mmcneil.contactmanager.service.ContactBatchService;
+import com.mmcneil.contactmanager.service.ContactExportService;
+import com.mmcneil.contactmanager.service.ContactImportService;
+import com.mmcneil.contactmanager.service.ContactListCache;
+import com.mmcneil.contactmanager.service.ContactNameKeyService;
+import com.mmcneil.contactmanager.service.ContactPhoneService;
+import com.mmcneil.contactmanager.service.ContactSearchService;
+import com.mmcneil.contactmanager.service.ContactService;
+import com.mmcneil.contactmanager.service.ContactSuggestService;
+import com.mmcneil.contactmanager.service.ContactSyncService;
+import com.mmcneil.contactmanager.service.ContactVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/contacts")
 public class ContactRestController {
 
+    static final int MAX_PAGE_SIZE = 500;
+
+    // Clients may keep the response but must revalidate it every time; private because it is one user's data
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final ContactRepository contactRepository;
-    private final UserRepository userRepository;
+    private final ContactService contactService;
+    private final ContactExportService contactExportService;
+    private final ContactBatchService contactBatchService;
+    private final ContactImportService contactImportService;
+    private final ContactSuggestService contactSuggestService;
+    private final ContactSearchService contactSearchService;
+    private final ContactNameKeyService contactNameKeyService;
+    private final ContactPhoneService contactPhoneService;
+    private final ContactVersionService contactVersionService;
+    private final ContactSyncService contactSyncService;
+    private final ContactListCache contactListCache;
 
-    public ContactRestController(ContactRepository contactRepository, UserRepository userRepository) {
+    public ContactRestController(ContactRepository contactRepository, ContactService contactService,
+                                 ContactExportService contactExportService, ContactBatchService contactBatchService,
+                                 ContactImportService contactImportService, ContactSuggestService contactSuggestService,
+                                 ContactSearchService contactSearchService, ContactNameKeyService contactNameKeyService,
+                                 ContactPhoneService contactPhoneService, ContactVersionService contactVersionService,
+                                 ContactSyncService contactSyncService, ContactListCache contactListCache) {
         this.contactRepository = contactRepository;
-        this.userRepository = userRepository;
+        this.contactService = contactService;
+        this.contactExportService = contactExportService;
+        this.contactBatchService = contactBatchService;
+        this.contactImportService = contactImportService;
+        this.contactSuggestService = contactSuggestService;
+        this.contactSearchService = contactSearchService;
+        this.contactNameKeyService = contactNameKeyService;
+        this.contactPhoneService = contactPhoneService;
+        this.contactVersionService = contactVersionService;
+        this.contactSyncService = contactSyncService;
+        this.contactListCache = contactListCache;
     }
 
-    // GET all contacts
+    // GET all contacts; send the ETag back in If-None-Match to get a 304 when nothing changed
     @GetMapping
-    public List<Contact> getContacts() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        return contactRepository.findByUser(user);
+    public ResponseEntity<List<ContactView>> getContacts(@CurrentUser AuthenticatedUser user, WebRequest request) {
+        // A 304 costs the version lookup alone. Otherwise the cached list is served once it has caught up with that
+        // version; it may be a commit ahead of it, which only means the next conditional GET gets a 200 again
+        long version = contactService.contactsVersion(user.getId());
+        return conditional(request, ContactVersionService.collectionETag(user.getId(), version),
+            () -> contactListCache.get(user.getId(), version).contacts());
+    }
+
+    // GET one page of contacts, ordered by name then id. Pass the returned nextCursor to get the following page
+    @GetMapping(params = "size")
+    public ResponseEntity<ContactPage> getContactPage(@RequestParam int size, @RequestParam(required = false) String cursor,
+                                                      @CurrentUser AuthenticatedUser user, WebRequest request) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return conditional(request, contactVersionService.collectionETag(user.getId()),
+            () -> loadPage(size, cursor, user.getId()));
+    }
+
+    private ContactPage loadPage(int size, String cursor, Long userId) {
+        // Fetch one extra row so we know whether there is a next page without a count query
+        Limit limit = Limit.of(size + 1);
+        List<ContactView> contacts;
+        if (cursor == null || cursor.isEmpty()) {
+            contacts = contactRepository.findFirstPageByUserId(userId, limit);
+        } else {
+            ContactCursor after;
+            try {
+                after = ContactCursor.decode(cursor);
+            } catch (IllegalArgumentException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+            }
+            contacts = contactRepository.findPageByUserIdAfter(userId, after.name(), after.id(), limit);
+        }
+
+        if (contacts.size() <= size) {
+            return new ContactPage(contacts, null);
+        }
+        List<ContactView> page = contacts.subList(0, size);
+        return new ContactPage(page, ContactCursor.of(page.get(size - 1)).encode());
     }
 
-    // GET contact by id
+    // GET what changed since the token from the previous sync (omit since for everything). 410 means the token is
+    // too old and the client must start over without one
+    @GetMapping("/changes")
+    public ContactChanges getChanges(@RequestParam(required = false) String since,
+                                     @RequestParam(defaultValue = "500") int limit,
+                                     @CurrentUser AuthenticatedUser user) {
+        if (limit < 1 || limit > ContactSyncService.MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + ContactSyncService.MAX_LIMIT);
+        }
+        try {
+            return contactSyncService.changesSince(user.getId(), since, limit);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid sync token");
+        } catch (SyncTokenExpiredException ex) {
+            throw new ResponseStatusException(HttpStatus.GONE, ex.getMessage());
+        }
+    }
+
+    // GET contacts whose name, any word of the name, email or phone starts with q; meant for search-as-you-type
+    @GetMapping("/suggest")
+    public List<ContactView> suggestContacts(@RequestParam String q, @RequestParam(defaultValue = "10") int limit,
+                                             @CurrentUser AuthenticatedUser user) {
+        if (limit < 1 || limit > ContactSuggestService.MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + ContactSuggestService.MAX_LIMIT);
+        }
+        return contactSuggestService.suggest(user.getId(), q, limit);
+    }
+
+    // GET contacts ranked by how well name, email and phone match every word of q.
+    // mode=fuzzy instead matches names that sound alike or are misspelled
+    @GetMapping("/search")
+    public List<ContactView> searchContacts(@RequestParam String q, @RequestParam(defaultValue = "20") int limit,
+                                            @RequestParam(defaultValue = "text") String mode,
+                                            @CurrentUser AuthenticatedUser user) {
+        if (q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must not be blank");
+        }
+        if (limit < 1 || limit > ContactSearchService.MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + ContactSearchService.MAX_LIMIT);
+        }
+        return switch (mode) {
+            case "text" -> contactSearchService.search(user.getId(), q, limit);
+            case "fuzzy" -> contactNameKeyService.search(user.getId(), q, limit);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported search mode: " + mode);
+        };
+    }
+
+    // GET the contacts with this phone number (caller ID); any format is accepted, E.164 is preferred
+    @GetMapping("/by-phone/{e164}")
+    public List<ContactView> getContactsByPhone(@PathVariable String e164, @CurrentUser AuthenticatedUser user) {
+        try {
+            return contactPhoneService.findByPhone(user.getId(), e164);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    // GET the whole address book as newline-delimited JSON, streamed straight to the response
+    @GetMapping("/export")
+    public void exportContacts(@RequestParam(defaultValue = "ndjson") String format, @CurrentUser AuthenticatedUser user,
+                               HttpServletResponse response) throws IOException {
+        if (!"ndjson".equalsIgnoreCase(format)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"contacts.ndjson\"");
+        contactExportService.exportNdjson(user.getId(), response.getOutputStream());
+    }
+
+    // GET contact by id; conditional like the list, on the contact's own version
     @GetMapping("/{id}")
-    public Contact getContactsById(@PathVariable long id) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        Contact contact = contactRepository.findById(id)
+    public ResponseEntity<Contact> getContactsById(@PathVariable long id, @CurrentUser AuthenticatedUser user,
+                                                   WebRequest request) {
+        String etag = contactVersionService.contactETag(id, user.getId())
             .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
-        if (!contact.getUser().getId().equals(user.getId())) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found");
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
         }
-        return contact;
+        Contact contact = contactService.findOwned(id, user.getId())
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
+        // The contact may have changed since the version lookup; tag what is actually sent
+        return ResponseEntity.ok().eTag(ContactVersionService.contactETag(contact)).cacheControl(REVALIDATE).body(contact);
     }
 
     // POST a new contact
     @PostMapping
-    public ResponseEntity<Contact> addContact(@RequestBody Contact contact) {
-        Contact saved = contactRepository.save(contact);
+    public ResponseEntity<Contact> addContact(@RequestBody Contact contact, @CurrentUser AuthenticatedUser user) {
+        Contact saved = contactService.create(user.getId(), contact);
         URI location = ServletUriComponentsBuilder
             .fromCurrentRequest()
             .path("/{id}")
@@ -65,23 +228,70 @@ public class ContactRestController {
         return ResponseEntity.created(location).body(saved);
     }
 
+    // POST many creates/updates/deletes at once; they run in one transaction and each gets its own result
+    @PostMapping("/batch")
+    public List<ContactBatchResult> applyBatch(@RequestBody ContactBatchRequest request, @CurrentUser AuthenticatedUser user) {
+        if (request.operations() == null || request.operations().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "operations must not be empty");
+        }
+        if (request.operations().size() > ContactBatchService.MAX_OPERATIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "A batch may contain at most " + ContactBatchService.MAX_OPERATIONS + " operations");
+        }
+        return contactBatchService.apply(user.getId(), request.operations());
+    }
+
+    // POST a CSV or vCard file as the raw request body; it is parsed while it is still being uploaded. A file that
+    // is malformed partway through still returns the result, with fatalError set: 200 if rows before it were
+    // imported, 400 if nothing was
+    @PostMapping("/import")
+    public ResponseEntity<ContactImportResult> importContacts(@RequestParam(defaultValue = "csv") String format,
+                                                              @CurrentUser AuthenticatedUser user,
+                                                              HttpServletRequest request) throws IOException {
+        ImportFormat importFormat;
+        try {
+            importFormat = ImportFormat.fromParameter(format);
+        } catch (ContactImportException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        ContactImportResult result;
+        try (ContactRecordReader reader = importFormat.open(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            result = contactImportService.importContacts(user.getId(), reader);
+        }
+        if (result.fatalError() != null && result.imported() == 0) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<Contact> updateContact(@PathVariable Long id, @RequestBody Contact updatedContact) {
-        return contactRepository.findById(id)
-            .map(contact -> {
-                contact.setName(updatedContact.getName());
-                contact.setEmail(updatedContact.getEmail());
-                contact.setPhone(updatedContact.getPhone());
-                contactRepository.save(contact);
-                return ResponseEntity.ok(contact);
-            })
+    public ResponseEntity<Contact> updateContact(@PathVariable Long id, @RequestBody Contact updatedContact,
+                                                 @CurrentUser AuthenticatedUser user) {
+        return contactService.update(id, user.getId(), updatedContact)
+            .map(ResponseEntity::ok)
             .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    // DELETE a contact by id
+    // DELETE a contact by id; 404 if it does not exist or belongs to someone else
     @DeleteMapping("/{id}")
-    public void deleteContact(@PathVariable Long id) {
-        contactRepository.deleteById(id);
+    public void deleteContact(@PathVariable Long id, @CurrentUser AuthenticatedUser user) {
+        if (!contactService.delete(id, user.getId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found");
+        }
     }
 
+
+    // The ETag must never be newer than the body: it is looked up before the body is loaded, so a write in between
+    // leaves the body newer than its tag, which only costs the client one extra download later, never a stale 304
+    private static <T> ResponseEntity<T> conditional(WebRequest request, String etag, Supplier<T> body) {
+        if (request.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
 }
@@ -0,0 +1,7 @@
+package com.mmcneil.contactmanager.exception;
+
+public class SyncTokenExpiredException extends RuntimeException {
+    public SyncTokenExpiredException() {
+        super("Sync token has expired; download the full contact list again.");
+    }
+}
@@ -0,0 +1,18 @@
+package com.mmcneil.contactmanager.importer;
+
+public class ContactImportException extends RuntimeException {
+
+    // Line of the import file the problem starts at, or 0 when it isn't about a particular line
+    private final long line;
+
+    public ContactImportException(String msg) { this(msg, 0); }
+
+    public ContactImportException(String msg, long line) {
+        super(msg);
+        this.line = line;
+    }
+
+    public long getLine() {
+        return line;
+    }
+}
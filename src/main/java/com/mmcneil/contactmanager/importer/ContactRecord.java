@@ -0,0 +1,8 @@
+package com.mmcneil.contactmanager.importer;
+
+/**
+ * Raw contact fields as read from an import file. {@code line} is where the record starts,
+ * so per-row errors can point the user at the right place.
+ */
+public record ContactRecord(long line, String name, String email, String phone) {
+}
@@ -0,0 +1,18 @@
+package com.mmcneil.contactmanager.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pull-style reader over an import file. Implementations read incrementally from the underlying
+ * stream and never hold more than the current record in memory.
+ */
+public interface ContactRecordReader extends Closeable {
+
+    /**
+     * Returns the next record, or null once the input is exhausted.
+     *
+     * @throws ContactImportException if the input is malformed beyond recovery
+     */
+    ContactRecord next() throws IOException;
+}
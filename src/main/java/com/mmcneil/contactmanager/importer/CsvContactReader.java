@@ -0,0 +1,128 @@
+package com.mmcneil.contactmanager.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 CSV reader. The first record must be a header naming the name, email and phone
+ * columns (in any order, extra columns are ignored). Quoted fields may contain commas,
+ * doubled quotes and line breaks.
+ */
+public class CsvContactReader implements ContactRecordReader {
+
+    private final BufferedReader in;
+    private long line = 1;
+    private int nameColumn = -1;
+    private int emailColumn = -1;
+    private int phoneColumn = -1;
+    private boolean headerRead;
+
+    public CsvContactReader(Reader reader) {
+        this.in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    @Override
+    public ContactRecord next() throws IOException {
+        if (!headerRead) {
+            readHeader();
+        }
+        List<String> fields;
+        long start;
+        do {
+            start = line;
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isEmpty()); // skip blank lines
+        return new ContactRecord(start, field(fields, nameColumn), field(fields, emailColumn), field(fields, phoneColumn));
+    }
+
+    private void readHeader() throws IOException {
+        headerRead = true;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new ContactImportException("CSV file is empty", 1);
+        }
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).strip().toLowerCase();
+            if (i == 0 && column.startsWith("\uFEFF")) {
+                column = column.substring(1);
+            }
+            switch (column) {
+                case "name", "full name", "fn" -> nameColumn = i;
+                case "email", "e-mail", "email address" -> emailColumn = i;
+                case "phone", "telephone", "tel", "phone number" -> phoneColumn = i;
+                default -> { }
+            }
+        }
+        if (nameColumn < 0 || emailColumn < 0 || phoneColumn < 0) {
+            throw new ContactImportException("CSV header must contain name, email and phone columns", 1);
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        long start = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new ContactImportException("Unterminated quoted field in the record starting at line " + start, start);
+                }
+                if (c == '"') {
+                    in.mark(1);
+                    int peek = in.read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        in.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column < fields.size() ? fields.get(column).strip() : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,20 @@
+package com.mmcneil.contactmanager.importer;
+
+import java.io.Reader;
+
+public enum ImportFormat {
+    CSV,
+    VCARD;
+
+    public static ImportFormat fromParameter(String value) {
+        return switch (value.toLowerCase()) {
+            case "csv" -> CSV;
+            case "vcard", "vcf" -> VCARD;
+            default -> throw new ContactImportException("Unsupported import format: " + value);
+        };
+    }
+
+    public ContactRecordReader open(Reader reader) {
+        return this == CSV ? new CsvContactReader(reader) : new VCardContactReader(reader);
+    }
+}
@@ -0,0 +1,154 @@
+package com.mmcneil.contactmanager.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Minimal vCard (2.1/3.0/4.0) reader. Only FN (falling back to N), the first EMAIL and the first
+ * TEL of each card are used; everything else is skipped. Folded lines are joined before parsing.
+ */
+public class VCardContactReader implements ContactRecordReader {
+
+    private final BufferedReader in;
+    private String lookahead;
+    private long lookaheadLine;
+    private long line;
+    // Line on which the last logical line returned by readUnfolded() started
+    private long logicalLine;
+
+    public VCardContactReader(Reader reader) {
+        this.in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+    }
+
+    @Override
+    public ContactRecord next() throws IOException {
+        String content;
+        // Skip anything between cards
+        do {
+            content = readUnfolded();
+            if (content == null) {
+                return null;
+            }
+        } while (!content.equalsIgnoreCase("BEGIN:VCARD"));
+
+        long start = logicalLine;
+        String formattedName = null;
+        String structuredName = null;
+        String email = null;
+        String phone = null;
+        while (true) {
+            content = readUnfolded();
+            if (content == null) {
+                throw new ContactImportException("vCard starting at line " + start + " is missing END:VCARD", start);
+            }
+            if (content.equalsIgnoreCase("END:VCARD")) {
+                break;
+            }
+            int colon = content.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String property = propertyName(content.substring(0, colon));
+            String value = content.substring(colon + 1);
+            switch (property) {
+                case "FN" -> formattedName = unescape(value);
+                case "N" -> structuredName = value;
+                case "EMAIL" -> email = email == null ? unescape(value) : email;
+                case "TEL" -> phone = phone == null ? telephone(value) : phone;
+                default -> { }
+            }
+        }
+        String name = formattedName != null && !formattedName.isBlank() ? formattedName : fromStructuredName(structuredName);
+        return new ContactRecord(start, strip(name), strip(email), strip(phone));
+    }
+
+    // Reads one logical line: continuation lines start with a space or tab (RFC 6350 section 3.2)
+    private String readUnfolded() throws IOException {
+        String current;
+        if (lookahead != null) {
+            current = lookahead;
+            logicalLine = lookaheadLine;
+            lookahead = null;
+        } else {
+            current = nextPhysicalLine();
+            logicalLine = line;
+        }
+        if (current == null) {
+            return null;
+        }
+        StringBuilder logical = null;
+        String next;
+        while ((next = nextPhysicalLine()) != null && !next.isEmpty()
+                && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+            if (logical == null) {
+                logical = new StringBuilder(current);
+            }
+            logical.append(next, 1, next.length());
+        }
+        lookahead = next;
+        lookaheadLine = line;
+        return (logical != null ? logical.toString() : current).strip();
+    }
+
+    private String nextPhysicalLine() throws IOException {
+        String physical = in.readLine();
+        if (physical != null) {
+            line++;
+            if (line == 1 && physical.startsWith("\uFEFF")) {
+                physical = physical.substring(1);
+            }
+        }
+        return physical;
+    }
+
+    // "item1.EMAIL;TYPE=work" -> "EMAIL"
+    private static String propertyName(String raw) {
+        int params = raw.indexOf(';');
+        String name = params < 0 ? raw : raw.substring(0, params);
+        int group = name.indexOf('.');
+        return (group < 0 ? name : name.substring(group + 1)).toUpperCase();
+    }
+
+    private static String telephone(String value) {
+        String unescaped = unescape(value);
+        return unescaped.regionMatches(true, 0, "tel:", 0, 4) ? unescaped.substring(4) : unescaped;
+    }
+
+    // N is "Family;Given;Additional;Prefix;Suffix"
+    private static String fromStructuredName(String value) {
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split(";", -1);
+        String family = parts.length > 0 ? unescape(parts[0]) : "";
+        String given = parts.length > 1 ? unescape(parts[1]) : "";
+        return (given + " " + family).strip();
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder out = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                out.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static String strip(String value) {
+        return value == null ? null : value.strip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
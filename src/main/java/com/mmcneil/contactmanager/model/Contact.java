@@ -1,18 +1,47 @@
 package com.mmcneil.contactmanager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.mmcneil.contactmanager.service.ContactPhoneListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
+
+import java.time.Instant;
 
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_contact_user_name_id", columnList = "user_id, name, id"),
+    @Index(name = "idx_contact_user_phone_e164", columnList = "user_id, phone_e164"),
+    @Index(name = "idx_contact_user_revision", columnList = "user_id, revision, id")
+})
+@EntityListeners(ContactPhoneListener.class)
+// Deleting only sets deleted = true, leaving a tombstone for delta sync (see ContactSyncService) until it is
+// compacted. Hibernate hides tombstones from every JPQL query and lookup; native SQL has to filter them itself.
+// (Not @SoftDelete: it rules out the lazy to-one references from ContactNameKey and ContactDuplicate)
+@SQLDelete(sql = "update contact set deleted = true where id = ? and version = ?")
+@SQLRestriction("deleted = false")
+// Only takes effect with the l2cache profile
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "contact")
 public class Contact {
-    @ManyToOne
+    // Never serialized: it is usually just a reference to the owner and would expose their password hash.
+    // Lazy because contact reads only ever need the owner's id, which the proxy holds without a query
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
+    // Sequence ids (pooled, 50 per round trip) let Hibernate batch inserts; IDENTITY forces one INSERT per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_seq")
+    @SequenceGenerator(name = "contact_seq", sequenceName = "contact_seq", allocationSize = 50)
     private long id;
 
     @NotBlank(message = "Name is required")
@@ -25,6 +54,35 @@ public class Contact {
     @NotBlank(message = "Phone is required")
     private String phone;
 
+    // Derived from phone on every write (see ContactPhoneListener); null when phone can't be parsed
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "phone_e164", length = 16)
+    private String phoneE164;
+
+    // Bumped by Hibernate on every update; the contact's ETag is built from it. No setter, so forms and JSON can't
+    // supply one. The default lets the column be added to a populated table
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    // Per-user revision of the last change and when it committed, both stamped by ContactVersionService. Never
+    // written through the entity, so a save can't put back an older value
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long revision;
+
+    @JsonIgnore
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private Instant updatedAt;
+
+    @JsonIgnore
+    @ColumnDefault("false")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private boolean deleted;
+
     public Contact() {}
 
     public Contact(String name, String email, String phone) {
@@ -56,6 +114,22 @@ public class Contact {
         return phone;
     }
 
+    public String getPhoneE164() {
+        return phoneE164;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
     public User getUser() {
         return user;
     }
@@ -76,6 +150,10 @@ public class Contact {
         this.phone = phone;
     }
 
+    public void setPhoneE164(String phoneE164) {
+        this.phoneE164 = phoneE164;
+    }
+
     // toString mostly for debugging / logging
     @Override
     public String toString() {
@@ -0,0 +1,16 @@
+package com.mmcneil.contactmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One entry of a POST /api/contacts/batch request. {@code id} is required for update and delete,
+ * the contact fields for create and update.
+ */
+public record ContactBatchOperation(Type op, Long id, String name, String email, String phone) {
+
+    public enum Type {
+        @JsonProperty("create") CREATE,
+        @JsonProperty("update") UPDATE,
+        @JsonProperty("delete") DELETE
+    }
+}
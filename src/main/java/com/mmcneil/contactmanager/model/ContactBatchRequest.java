@@ -0,0 +1,6 @@
+package com.mmcneil.contactmanager.model;
+
+import java.util.List;
+
+public record ContactBatchRequest(List<ContactBatchOperation> operations) {
+}
@@ -0,0 +1,19 @@
+package com.mmcneil.contactmanager.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of a single batch operation. {@code status} uses the HTTP code the equivalent
+ * single-contact call would have returned (201, 200, 204, 400 or 404).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContactBatchResult(int index, int status, Long id, String error) {
+
+    public static ContactBatchResult ok(int index, int status, long id) {
+        return new ContactBatchResult(index, status, id, null);
+    }
+
+    public static ContactBatchResult failed(int index, int status, Long id, String error) {
+        return new ContactBatchResult(index, status, id, error);
+    }
+}
@@ -0,0 +1,10 @@
+package com.mmcneil.contactmanager.model;
+
+import java.util.List;
+
+/**
+ * One batch of a delta sync: contacts created or updated, ids of deleted ones, and the token to pass as
+ * {@code since} next time. When {@code hasMore} is set, ask again right away with the new token.
+ */
+public record ContactChanges(List<ContactView> updated, List<Long> deleted, String token, boolean hasMore) {
+}
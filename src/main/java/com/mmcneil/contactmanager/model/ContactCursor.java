@@ -0,0 +1,34 @@
+package com.mmcneil.contactmanager.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last contact on a page, in the (name, id) sort order used by keyset pagination.
+ * Clients only ever see the encoded form, so the layout can change without breaking them.
+ */
+public record ContactCursor(String name, long id) {
+
+    public static ContactCursor of(ContactView contact) {
+        return new ContactCursor(contact.name(), contact.id());
+    }
+
+    public String encode() {
+        String raw = id + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException for anything that was not produced by encode()
+    public static ContactCursor decode(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':');
+        if (separator < 1) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            return new ContactCursor(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed cursor", ex);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.mmcneil.contactmanager.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Membership of a contact in a group of likely duplicates found by the last scan of its owner's address
+ * book. The group id is the smallest contact id in the group. Rows go away with their contact.
+ */
+@Entity
+@Table(name = "contact_duplicate", indexes = @Index(name = "idx_contact_duplicate_user_group", columnList = "user_id, group_id"))
+public class ContactDuplicate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_duplicate_seq")
+    @SequenceGenerator(name = "contact_duplicate_seq", sequenceName = "contact_duplicate_seq", allocationSize = 50)
+    private long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "group_id", nullable = false)
+    private long groupId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "contact_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Contact contact;
+
+    protected ContactDuplicate() {}
+
+    public ContactDuplicate(Long userId, long groupId, Contact contact) {
+        this.userId = userId;
+        this.groupId = groupId;
+        this.contact = contact;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getGroupId() {
+        return groupId;
+    }
+
+    public Contact getContact() {
+        return contact;
+    }
+}
@@ -0,0 +1,9 @@
+package com.mmcneil.contactmanager.model;
+
+import java.util.List;
+
+/**
+ * Contacts that look like the same person, as found by the last duplicate scan.
+ */
+public record ContactDuplicateGroup(long groupId, List<ContactView> contacts) {
+}
@@ -0,0 +1,14 @@
+package com.mmcneil.contactmanager.model;
+
+import java.util.List;
+
+/**
+ * Summary of an import. Only the first {@code errors} are listed; {@code failed} counts all of them.
+ * {@code fatalError} is set when the file could not be read to the end; the rows before it still count, and the
+ * {@code imported} ones have been saved.
+ */
+public record ContactImportResult(long processed, long imported, long failed, List<RowError> errors, RowError fatalError) {
+
+    public record RowError(long line, String message) {
+    }
+}
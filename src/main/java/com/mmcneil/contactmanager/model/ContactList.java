@@ -0,0 +1,9 @@
+package com.mmcneil.contactmanager.model;
+
+import java.util.List;
+
+/**
+ * A user's whole contact list and the address book revision it reflects, which also versions its ETag.
+ */
+public record ContactList(long revision, List<ContactView> contacts) {
+}
@@ -0,0 +1,10 @@
+package com.mmcneil.contactmanager.model;
+
+import java.util.List;
+
+/**
+ * Folds {@code sourceIds} into {@code targetId}: the sources are deleted and the target is kept, with any
+ * of name, email and phone that are given replacing its own values.
+ */
+public record ContactMergeRequest(Long targetId, List<Long> sourceIds, String name, String email, String phone) {
+}
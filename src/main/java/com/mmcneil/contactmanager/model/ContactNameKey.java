@@ -0,0 +1,59 @@
+package com.mmcneil.contactmanager.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * One lookup key derived from a contact's name: a normalized word ({@code T:smith}) or a Double Metaphone
+ * code ({@code P:SM0}). Fuzzy search finds candidates by key through the (user_id, name_key) index instead of
+ * scoring every contact. Rows go away with their contact through the database-level cascade.
+ */
+@Entity
+@Table(name = "contact_name_key", indexes = {
+    @Index(name = "idx_contact_name_key_lookup", columnList = "user_id, name_key"),
+    @Index(name = "idx_contact_name_key_contact", columnList = "contact_id")
+})
+public class ContactNameKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contact_name_key_seq")
+    @SequenceGenerator(name = "contact_name_key_seq", sequenceName = "contact_name_key_seq", allocationSize = 50)
+    private long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "contact_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Contact contact;
+
+    // Copied from the contact so lookups never join to it
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "name_key", nullable = false, length = 64)
+    private String key;
+
+    protected ContactNameKey() {}
+
+    public ContactNameKey(Contact contact, Long userId, String key) {
+        this.contact = contact;
+        this.userId = userId;
+        this.key = key;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Contact getContact() {
+        return contact;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,9 @@
+package com.mmcneil.contactmanager.model;
+
+import java.util.List;
+
+/**
+ * One page of contacts plus the cursor for the next one (null on the last page).
+ */
+public record ContactPage(List<ContactView> items, String nextCursor) {
+}
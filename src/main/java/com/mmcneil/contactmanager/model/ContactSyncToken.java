@@ -0,0 +1,39 @@
+package com.mmcneil.contactmanager.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * How far a client has synced: the last change it received, in the (revision, id) order changes are served in.
+ * Opaque to clients, like {@link ContactCursor}. A token made by {@link #endOf(long)} says every change of that
+ * revision was received, rather than those up to a particular contact.
+ */
+public record ContactSyncToken(long revision, long id) {
+
+    public static ContactSyncToken endOf(long revision) {
+        return new ContactSyncToken(revision, Long.MAX_VALUE);
+    }
+
+    public boolean isEndOfRevision() {
+        return id == Long.MAX_VALUE;
+    }
+
+    public String encode() {
+        String raw = revision + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException for anything that was not produced by encode()
+    public static ContactSyncToken decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(':');
+        if (separator < 1) {
+            throw new IllegalArgumentException("Malformed sync token");
+        }
+        try {
+            return new ContactSyncToken(Long.parseLong(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed sync token", ex);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.mmcneil.contactmanager.model;
+
+/**
+ * Read-only view of a contact with just the columns the list screens and API render.
+ * Selected directly by JPQL constructor expressions, so no entity (or its owner) is loaded.
+ */
+public record ContactView(long id, String name, String email, String phone) {
+
+    public static ContactView of(Contact contact) {
+        return new ContactView(contact.getId(), contact.getName(), contact.getEmail(), contact.getPhone());
+    }
+}
@@ -3,11 +3,18 @@ package com.mmcneil.contactmanager.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@NamedEntityGraph(name = "User.roles", attributeNodes = @NamedAttributeNode("roles"))
+// Only takes effect with the l2cache profile
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class User {
 
     public User() {
@@ -30,11 +37,24 @@ public class User {
     @Column(nullable = false)
     private String password;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    // Lazy: only authentication needs the roles, and it fetches them with the user through the User.roles graph
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user.roles")
+    @ElementCollection
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
     private Set<String> roles;
 
+    // Version of the user's whole address book, bumped by ContactVersionService on every contact write. Only
+    // ever changed with an UPDATE ... + 1, never through the entity, so saving a loaded User can't roll it back
+    @ColumnDefault("0")
+    @Column(name = "contacts_version", nullable = false, insertable = false, updatable = false)
+    private long contactsVersion;
+
+    // Highest contact revision whose tombstone has been compacted away; sync tokens older than this are expired
+    @ColumnDefault("0")
+    @Column(name = "contacts_purged_revision", nullable = false, insertable = false, updatable = false)
+    private long contactsPurgedRevision;
+
     public Long getId() {
         return id;
     }
@@ -55,6 +75,14 @@ public class User {
         return roles;
     }
 
+    public long getContactsVersion() {
+        return contactsVersion;
+    }
+
+    public long getContactsPurgedRevision() {
+        return contactsPurgedRevision;
+    }
+
     public void setId(Long id) {
         this.id = id;
     }
@@ -0,0 +1,20 @@
+package com.mmcneil.contactmanager.repository;
+
+import com.mmcneil.contactmanager.model.ContactDuplicate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ContactDuplicateRepository extends JpaRepository<ContactDuplicate, Long> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from ContactDuplicate d where d.userId = :userId")
+    int deleteByUserId(Long userId);
+
+    // (groupId, contact id, name, email, phone) rows, grouped together
+    @Query("select d.groupId, c.id, c.name, c.email, c.phone from ContactDuplicate d join d.contact c "
+        + "where d.userId = :userId order by d.groupId, c.id")
+    List<Object[]> findGroupRowsByUserId(Long userId);
+}
@@ -0,0 +1,28 @@
+package com.mmcneil.contactmanager.repository;
+
+import com.mmcneil.contactmanager.model.ContactNameKey;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ContactNameKeyRepository extends JpaRepository<ContactNameKey, Long> {
+
+    // Keys are found through idx_contact_name_key_lookup. Contacts matching the most keys come first, so when a common
+    // key matches more contacts than the limit, it is the weakest candidates that are cut
+    @Query("select k.contact.id from ContactNameKey k where k.userId = :userId and k.key in :keys "
+        + "group by k.contact.id order by count(k) desc, k.contact.id")
+    List<Long> findContactIds(Long userId, Collection<String> keys, Limit limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from ContactNameKey k where k.contact.id = :contactId")
+    int deleteByContactId(long contactId);
+
+    // Contacts written before name keys existed, in id order so a pass always makes progress
+    @Query("select c.id, c.user.id, c.name from Contact c where c.id > :afterId "
+        + "and not exists (select 1 from ContactNameKey k where k.contact = c) order by c.id")
+    List<Object[]> findContactsWithoutKeys(long afterId, Limit limit);
+}
@@ -1,11 +1,93 @@
 package com.mmcneil.contactmanager.repository;
 
 import com.mmcneil.contactmanager.model.Contact;
-import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.model.ContactView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ContactRepository extends JpaRepository<Contact, Long> {
-    List<Contact> findByUser(User user);
+    // Query results are cached under the l2cache profile; any write to the contact table invalidates them
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.contact")
+    })
+    List<Contact> findByUserId(Long userId);
+
+    List<Contact> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    // Ownership is part of the WHERE clause, so checking it costs nothing beyond the lookup itself
+    Optional<Contact> findByIdAndUserId(long id, Long userId);
+
+    @Query("select c.version from Contact c where c.id = :id and c.user.id = :userId")
+    Optional<Long> findVersionByIdAndUserId(long id, Long userId);
+
+    // Bulk statement bypasses the persistence context, so it is flushed before and cleared after. A soft delete
+    // (see Contact): it leaves a tombstone, and tombstones are already excluded by the entity's restriction
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Contact c set c.deleted = true where c.id = :id and c.user.id = :userId")
+    int deleteByIdAndUserId(long id, Long userId);
+
+    // Read paths below select only the rendered columns into ContactView, so the owning User and its roles are never loaded
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.contact")
+    })
+    @Query("select new com.mmcneil.contactmanager.model.ContactView(c.id, c.name, c.email, c.phone) from Contact c where c.user.id = :userId")
+    List<ContactView> findViewsByUserId(Long userId);
+
+    @Query("select new com.mmcneil.contactmanager.model.ContactView(c.id, c.name, c.email, c.phone) from Contact c "
+        + "where c.user.id = :userId and c.id in :ids")
+    List<ContactView> findViewsByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    // Candidate filter for the portable search fallback; a leading wildcard means this is a scan of the user's rows.
+    // Phones are compared without their formatting, as the ranking does, so "5551234" finds "(555) 123-4567"
+    @Query("select new com.mmcneil.contactmanager.model.ContactView(c.id, c.name, c.email, c.phone) from Contact c "
+        + "where c.user.id = :userId and (lower(c.name) like %:text% or lower(c.email) like %:text% "
+        + "or replace(replace(replace(replace(replace(replace(c.phone, ' ', ''), '-', ''), '(', ''), ')', ''), '.', ''), '+', '') "
+        + "like %:text%)")
+    List<ContactView> findViewsByUserIdContaining(Long userId, String text);
+
+    // (id, phoneE164) pairs for building the in-memory caller-ID index
+    @Query("select c.id, c.phoneE164 from Contact c where c.user.id = :userId and c.phoneE164 is not null")
+    List<Object[]> findPhoneNumbersByUserId(Long userId);
+
+    // Rows not yet normalized (written before phone_e164 existed, or unparseable), in id order for the backfill
+    @Query("select c from Contact c where c.phoneE164 is null and c.id > :afterId order by c.id")
+    List<Contact> findWithoutPhoneE164(long afterId, Limit limit);
+
+    // Keyset pagination: both queries walk idx_contact_user_name_id, so a deep page costs the same as the first
+    @Query("select new com.mmcneil.contactmanager.model.ContactView(c.id, c.name, c.email, c.phone) from Contact c "
+        + "where c.user.id = :userId order by c.name, c.id")
+    List<ContactView> findFirstPageByUserId(Long userId, Limit limit);
+
+    @Query("select new com.mmcneil.contactmanager.model.ContactView(c.id, c.name, c.email, c.phone) from Contact c "
+        + "where c.user.id = :userId and (c.name, c.id) > (:name, :id) order by c.name, c.id")
+    List<ContactView> findPageByUserIdAfter(Long userId, String name, long id, Limit limit);
+
+    // Cursor-backed read for exports; must be consumed (and closed) inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.mmcneil.contactmanager.model.ContactView(c.id, c.name, c.email, c.phone) from Contact c "
+        + "where c.user.id = :userId order by c.id")
+    Stream<ContactView> streamByUserId(Long userId);
+
+    // Delta sync reads tombstones too, which only native SQL can see. Keyset order matches ContactSyncToken
+    @Query(value = "select id, name, email, phone, deleted, revision from contact where user_id = :userId "
+        + "and (revision > :revision or (revision = :revision and id > :afterId)) order by revision, id",
+        nativeQuery = true)
+    List<Object[]> findChangesByUserIdAfter(Long userId, long revision, long afterId, Limit limit);
+
+    @Modifying
+    @Query(value = "delete from contact where deleted = true and updated_at < :cutoff", nativeQuery = true)
+    int deleteTombstonesBefore(Instant cutoff);
 }
@@ -0,0 +1,24 @@
+package com.mmcneil.contactmanager.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A JdbcTemplate whose statements count towards {@link SqlStatementCounter}, like the ones Hibernate prepares.
+ * Every statement JdbcTemplate creates, prepared or not, passes through {@link #applyStatementSettings}.
+ */
+public class CountingJdbcTemplate extends JdbcTemplate {
+
+    public CountingJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        SqlStatementCounter.increment();
+        super.applyStatementSettings(stmt);
+    }
+}
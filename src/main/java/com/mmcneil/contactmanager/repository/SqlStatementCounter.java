@@ -0,0 +1,43 @@
+package com.mmcneil.contactmanager.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between {@link #start()} and
+ * {@link #stop()}. Registered through {@code hibernate.session_factory.statement_inspector}, so Hibernate
+ * creates the instance; the count lives in a thread local and the SQL is passed through unchanged.
+ * Statements run through JdbcTemplate are added by {@link #increment()} (see {@link CountingJdbcTemplate}).
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    // Statements counted so far, or 0 when counting was not started on this thread
+    public static int current() {
+        int[] count = COUNT.get();
+        return count == null ? 0 : count[0];
+    }
+
+    public static int stop() {
+        int count = current();
+        COUNT.remove();
+        return count;
+    }
+
+    public static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        increment();
+        return sql;
+    }
+}
@@ -1,14 +1,52 @@
 package com.mmcneil.contactmanager.repository;
 
 import com.mmcneil.contactmanager.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.user")
+    })
     Optional<User> findByUsername(String username);
 
+    // For authentication: the roles come back in the same query instead of a second select
+    @EntityGraph("User.roles")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "query.user")
+    })
+    Optional<User> findWithRolesByUsername(String username);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Query("select u.id from User u order by u.id")
+    List<Long> findAllIds();
+
+    @Query("select u.contactsVersion from User u where u.id = :id")
+    Optional<Long> findContactsVersion(Long id);
+
+    @Query("select u.contactsPurgedRevision from User u where u.id = :id")
+    Optional<Long> findContactsPurgedRevision(Long id);
+
+    // Run just before ContactRepository.deleteTombstonesBefore with the same cutoff. Tombstones are stamped in
+    // revision order, so the newest one being purged is also the highest revision
+    @Modifying
+    @Query(value = "update users set contacts_purged_revision = (select max(c.revision) from contact c "
+        + "where c.user_id = users.id and c.deleted = true and c.updated_at < :cutoff) "
+        + "where exists (select 1 from contact c where c.user_id = users.id and c.deleted = true and c.updated_at < :cutoff)",
+        nativeQuery = true)
+    int markTombstonesPurged(Instant cutoff);
 }
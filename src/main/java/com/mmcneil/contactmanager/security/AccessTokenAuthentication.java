@@ -0,0 +1,36 @@
+package com.mmcneil.contactmanager.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+import java.io.Serial;
+
+/**
+ * Authentication established from a bearer access token rather than from credentials.
+ */
+public class AccessTokenAuthentication extends AbstractAuthenticationToken {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final transient AccessTokenService.VerifiedToken token;
+
+    public AccessTokenAuthentication(AccessTokenService.VerifiedToken token) {
+        super(token.user().getAuthorities());
+        this.token = token;
+        setAuthenticated(true);
+    }
+
+    public AccessTokenService.VerifiedToken getToken() {
+        return token;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public AuthenticatedUser getPrincipal() {
+        return token.user();
+    }
+}
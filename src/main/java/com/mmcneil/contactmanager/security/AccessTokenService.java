@@ -0,0 +1,185 @@
+package com.mmcneil.contactmanager.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and verifies self-contained API access tokens. A token is
+ * {@code base64url(payload) + "." + base64url(HMAC-SHA256(payload))}; the payload carries the user id,
+ * username, authorities and expiry, so verifying one needs neither BCrypt nor a database query.
+ * Revocations are held in memory until the revoked token would have expired anyway.
+ */
+@Component
+public class AccessTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessTokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Clock clock;
+
+    // token id -> expiry of the revoked token
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    // user id -> tokens issued before this instant are rejected; dropped once all of those have expired
+    private final Map<Long, Instant> revokedBefore = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AccessTokenService(@Value("${contactmanager.security.token.secret:}") String secret,
+                              @Value("${contactmanager.security.token.ttl:15m}") Duration ttl) {
+        this(secret, ttl, Clock.systemUTC());
+    }
+
+    AccessTokenService(String secret, Duration ttl, Clock clock) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("contactmanager.security.token.secret is not set; using a random key, so tokens will not survive a restart");
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret);
+            if (keyBytes.length < 32) {
+                throw new IllegalArgumentException("contactmanager.security.token.secret must be at least 256 bits");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+
+    public record VerifiedToken(String tokenId, Instant expiresAt, AuthenticatedUser user) {
+    }
+
+    public IssuedToken issue(AuthenticatedUser user) {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(ttl);
+        String roles = user.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .collect(Collectors.joining(","));
+        // Username goes last so it may contain the separator. Issue time is in milliseconds, like revokeAll's
+        // cutoff, so signing in again right after a password change isn't caught by it
+        String payload = String.join("|",
+            UUID.randomUUID().toString(),
+            String.valueOf(user.getId()),
+            String.valueOf(now.toEpochMilli()),
+            String.valueOf(expiresAt.getEpochSecond()),
+            roles,
+            user.getUsername());
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        String token = ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+        return new IssuedToken(token, expiresAt);
+    }
+
+    /**
+     * Returns the token's contents if the signature matches and it is neither expired nor revoked.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot < 1) {
+            return Optional.empty();
+        }
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+            return Optional.empty();
+        }
+
+        String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", 6);
+        if (parts.length != 6) {
+            return Optional.empty();
+        }
+        String tokenId = parts[0];
+        long userId = Long.parseLong(parts[1]);
+        Instant issuedAt = Instant.ofEpochMilli(Long.parseLong(parts[2]));
+        Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[3]));
+        if (!clock.instant().isBefore(expiresAt) || revokedTokens.containsKey(tokenId)) {
+            return Optional.empty();
+        }
+        Instant cutoff = revokedBefore.get(userId);
+        if (cutoff != null && !issuedAt.isAfter(cutoff)) {
+            return Optional.empty();
+        }
+
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        for (String role : parts[4].split(",")) {
+            if (!role.isEmpty()) {
+                authorities.add(new SimpleGrantedAuthority(role));
+            }
+        }
+        return Optional.of(new VerifiedToken(tokenId, expiresAt, new AuthenticatedUser(userId, parts[5], "", authorities)));
+    }
+
+    public void revoke(VerifiedToken token) {
+        pruneRevocations(clock.instant());
+        revokedTokens.put(token.tokenId(), token.expiresAt());
+    }
+
+    // Rejects every token issued to the user so far, e.g. after a password change
+    public void revokeAll(Long userId) {
+        Instant now = clock.instant();
+        pruneRevocations(now);
+        revokedBefore.put(userId, now.truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    // Revocations only matter while a token they cover can still be unexpired
+    private void pruneRevocations(Instant now) {
+        revokedTokens.values().removeIf(expiry -> !now.isBefore(expiry));
+        Instant oldestLiveIssue = now.minus(ttl);
+        revokedBefore.values().removeIf(cutoff -> !cutoff.isAfter(oldestLiveIssue));
+    }
+
+    // Visible for tests
+    int revocationCount() {
+        return revokedTokens.size() + revokedBefore.size();
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            // Mac instances are not thread-safe and are cheap to create
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.mmcneil.contactmanager.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * Principal issued by {@link CustomUserDetailsService}. Carries the database id of the user so
+ * request handling can scope queries without looking the user up again.
+ */
+public class AuthenticatedUser extends User {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String username, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
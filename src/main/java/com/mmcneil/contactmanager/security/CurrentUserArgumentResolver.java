@@ -0,0 +1,52 @@
+package com.mmcneil.contactmanager.security;
+
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} parameters straight from the security context. Principals created by
+ * {@link CustomUserDetailsService} already carry the user id, so the common path runs no query.
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    // Only needed for principals that did not come from CustomUserDetailsService
+    private final ObjectProvider<UserRepository> userRepository;
+
+    public CurrentUserArgumentResolver(ObjectProvider<UserRepository> userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+            && AuthenticatedUser.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public AuthenticatedUser resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                             NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            throw new AuthenticationCredentialsNotFoundException("No authenticated user");
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        String username = authentication.getName();
+        User user = userRepository.getObject().findByUsername(username)
+            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        return new AuthenticatedUser(user.getId(), user.getUsername(), "", authentication.getAuthorities());
+    }
+}
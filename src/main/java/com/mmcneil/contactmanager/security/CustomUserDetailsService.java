@@ -1,38 +1,110 @@
 package com.mmcneil.contactmanager.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.mmcneil.contactmanager.model.User;
 import com.mmcneil.contactmanager.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Loads users for authentication, keeping recently used ones in a size-bounded, time-expiring cache
+ * so stateless API clients don't hit the users and user_roles tables on every request. Anything that
+ * changes a user's password or roles must call {@link #evict(String)}. Lookups are timed as
+ * {@code contactmanager.auth} with {@code step=user-lookup}, next to the password check's {@code step=password}.
+ */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final Cache<String, CachedUser> cache;
+    private final Timer lookupTimer;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    // Immutable snapshot; a fresh UserDetails is built per call because Spring Security erases
+    // credentials on the instance it is handed
+    private record CachedUser(Long id, String username, String password, Set<GrantedAuthority> authorities) {
+    }
+
+    @Autowired
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${contactmanager.security.user-cache.max-size:10000}") long maxSize,
+                                    @Value("${contactmanager.security.user-cache.ttl:5m}") Duration ttl,
+                                    MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        this.lookupTimer = Timer.builder("contactmanager.auth")
+            .description("Time spent authenticating, by step")
+            .tag("step", "user-lookup")
+            .tag("operation", "load")
+            .register(meterRegistry);
+    }
+
+    public CustomUserDetailsService(UserRepository userRepository) {
+        this(userRepository, 10_000, Duration.ofMinutes(5), new SimpleMeterRegistry());
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        // Usernames are stored lower-cased at registration
+        CachedUser user = lookupTimer.record(() -> cache.get(username.toLowerCase(), this::load));
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+        return new AuthenticatedUser(user.id(), user.username(), user.password(), user.authorities());
+    }
+
+    // Misses are not cached, so a user who registers is visible immediately
+    private CachedUser load(String username) {
+        User user = userRepository.findWithRolesByUsername(username).orElse(null);
+        if (user == null) {
+            return null;
+        }
 
-        Set<SimpleGrantedAuthority> authorities = user.getRoles().stream()
+        Set<GrantedAuthority> authorities = user.getRoles().stream()
             .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-            .collect(Collectors.toSet());
+            .collect(Collectors.toUnmodifiableSet());
 
-        return new org.springframework.security.core.userdetails.User(
+        return new CachedUser(
+            user.getId(),
             user.getUsername(),
             user.getPassword(),
             authorities
         );
     }
-}
\ No newline at end of file
+
+    public void evict(String username) {
+        cache.invalidate(username.toLowerCase());
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    // Hit, miss and eviction counts since startup
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    // Exposed for metrics binding
+    public Cache<String, ?> getCache() {
+        return cache;
+    }
+}
@@ -1,5 +1,10 @@
 package com.mmcneil.contactmanager.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -10,6 +15,7 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -18,13 +24,32 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class SecurityConfig {
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ObjectProvider<MeterRegistry> meterRegistry) {
+        // Sliced tests (@WebMvcTest) import this class without metrics auto-configuration
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
     }
-    // API security: stateless, returns 401, uses HTTP Basic
+    // Actuator: health is public for load balancers and probes; everything else (the Prometheus scrape) needs an
+    // ADMIN user over HTTP Basic, without a session
+	@Bean
+	@Order(0)
+	public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http) throws Exception {
+		http
+			.securityMatcher(EndpointRequest.toAnyEndpoint())
+			.authorizeHttpRequests(auth -> auth
+				.requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+				.anyRequest().hasRole("ADMIN")
+			)
+			.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+			.csrf(AbstractHttpConfigurer::disable)
+			.httpBasic(Customizer.withDefaults())
+			.exceptionHandling(e -> e.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
+		return http.build();
+	}
+    // API security: stateless, returns 401, accepts bearer access tokens (HMAC only) or HTTP Basic
 	@Bean
 	@Order(1)
-	public SecurityFilterChain apiSecurityFilterChain(HttpSecurity http) throws Exception {
+	public SecurityFilterChain apiSecurityFilterChain(HttpSecurity http, AccessTokenService tokenService) throws Exception {
+		HttpStatusEntryPoint entryPoint = new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED);
 		http
 			.securityMatcher("/api/**")
 			.authorizeHttpRequests(auth -> auth
@@ -34,8 +59,9 @@ public class SecurityConfig {
 			.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 			.csrf(AbstractHttpConfigurer::disable)
 			.httpBasic(Customizer.withDefaults())
+			.addFilterBefore(new BearerTokenAuthenticationFilter(tokenService, entryPoint), BasicAuthenticationFilter.class)
 			.exceptionHandling(e -> e
-				.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+				.authenticationEntryPoint(entryPoint)
 				.accessDeniedHandler((request, response, accessDeniedException) -> {
 					response.sendError(HttpStatus.UNAUTHORIZED.value(), HttpStatus.UNAUTHORIZED.getReasonPhrase());
 				})
@@ -0,0 +1,128 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactBatchOperation;
+import com.mmcneil.contactmanager.model.ContactBatchResult;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import jakarta.validation.Validator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ContactBatchService {
+
+    public static final int MAX_OPERATIONS = 1000;
+
+    private final ContactRepository contactRepository;
+    private final UserRepository userRepository;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ContactBatchService(ContactRepository contactRepository, UserRepository userRepository, Validator validator,
+                               ApplicationEventPublisher eventPublisher) {
+        this.contactRepository = contactRepository;
+        this.userRepository = userRepository;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Applies all operations for the user in a single transaction. Invalid operations (bad fields,
+     * unknown or foreign ids) are reported in their result and skipped; the rest are written using
+     * JDBC batches. Results are returned in request order.
+     */
+    @Transactional
+    public List<ContactBatchResult> apply(Long userId, List<ContactBatchOperation> operations) {
+        ContactBatchResult[] results = new ContactBatchResult[operations.size()];
+
+        // Load every update/delete target in one query, already scoped to the owner
+        Set<Long> ids = new HashSet<>();
+        for (ContactBatchOperation operation : operations) {
+            if (operation.op() != ContactBatchOperation.Type.CREATE && operation.id() != null) {
+                ids.add(operation.id());
+            }
+        }
+        Map<Long, Contact> owned = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Contact contact : contactRepository.findByUserIdAndIdIn(userId, ids)) {
+                owned.put(contact.getId(), contact);
+            }
+        }
+
+        // Sets the foreign key on new contacts without loading the user
+        User owner = userRepository.getReferenceById(userId);
+        List<Contact> created = new ArrayList<>();
+        List<Integer> createdIndexes = new ArrayList<>();
+        List<Contact> deleted = new ArrayList<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            ContactBatchOperation operation = operations.get(i);
+            if (operation.op() == null) {
+                results[i] = ContactBatchResult.failed(i, 400, operation.id(), "op is required");
+                continue;
+            }
+            switch (operation.op()) {
+                case CREATE -> {
+                    Contact contact = new Contact(operation.name(), operation.email(), operation.phone());
+                    String error = Violations.describe(validator, contact);
+                    if (error != null) {
+                        results[i] = ContactBatchResult.failed(i, 400, null, error);
+                        continue;
+                    }
+                    contact.setUser(owner);
+                    created.add(contact);
+                    createdIndexes.add(i);
+                }
+                case UPDATE -> {
+                    Contact contact = operation.id() == null ? null : owned.get(operation.id());
+                    if (contact == null) {
+                        results[i] = ContactBatchResult.failed(i, 404, operation.id(), "Contact not found");
+                        continue;
+                    }
+                    String error = Violations.describe(validator, new Contact(operation.name(), operation.email(), operation.phone()));
+                    if (error != null) {
+                        results[i] = ContactBatchResult.failed(i, 400, operation.id(), error);
+                        continue;
+                    }
+                    // Managed entity: the change is flushed (and batched) at commit
+                    contact.setName(operation.name());
+                    contact.setEmail(operation.email());
+                    contact.setPhone(operation.phone());
+                    results[i] = ContactBatchResult.ok(i, 200, contact.getId());
+                    eventPublisher.publishEvent(ContactChangedEvent.updated(userId, contact));
+                }
+                case DELETE -> {
+                    Contact contact = operation.id() == null ? null : owned.remove(operation.id());
+                    if (contact == null) {
+                        results[i] = ContactBatchResult.failed(i, 404, operation.id(), "Contact not found");
+                        continue;
+                    }
+                    deleted.add(contact);
+                    results[i] = ContactBatchResult.ok(i, 204, contact.getId());
+                    eventPublisher.publishEvent(ContactChangedEvent.deleted(userId, contact.getId()));
+                }
+            }
+        }
+
+        // Sequence ids are assigned on persist, so the results can be filled in before the flush
+        contactRepository.saveAll(created);
+        for (int n = 0; n < created.size(); n++) {
+            int index = createdIndexes.get(n);
+            results[index] = ContactBatchResult.ok(index, 201, created.get(n).getId());
+            eventPublisher.publishEvent(ContactChangedEvent.created(userId, created.get(n)));
+        }
+        contactRepository.deleteAll(deleted);
+        contactRepository.flush();
+        return List.of(results);
+    }
+}
@@ -0,0 +1,26 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactView;
+
+/**
+ * Published inside the transaction that creates, updates or deletes a contact. Listeners that keep derived
+ * state (indexes, caches) should use {@code @TransactionalEventListener} so they only see committed changes.
+ * {@code contact} is the new state, or null for deletes.
+ */
+public record ContactChangedEvent(Long userId, long contactId, Type type, ContactView contact) {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    public static ContactChangedEvent created(Long userId, Contact contact) {
+        return new ContactChangedEvent(userId, contact.getId(), Type.CREATED, ContactView.of(contact));
+    }
+
+    public static ContactChangedEvent updated(Long userId, Contact contact) {
+        return new ContactChangedEvent(userId, contact.getId(), Type.UPDATED, ContactView.of(contact));
+    }
+
+    public static ContactChangedEvent deleted(Long userId, long contactId) {
+        return new ContactChangedEvent(userId, contactId, Type.DELETED, null);
+    }
+}
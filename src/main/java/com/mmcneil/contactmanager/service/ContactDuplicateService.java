@@ -0,0 +1,188 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactDuplicate;
+import com.mmcneil.contactmanager.model.ContactDuplicateGroup;
+import com.mmcneil.contactmanager.model.ContactMergeRequest;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.repository.ContactDuplicateRepository;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Finds likely duplicate contacts (see {@link DuplicateFinder}) and merges them. Scans run on a dedicated
+ * fork-join pool, one user per task, and each user's groups are committed as soon as that user is done, so
+ * a full scan makes steady progress instead of holding one huge transaction.
+ */
+@Service
+public class ContactDuplicateService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactDuplicateService.class);
+
+    private final ContactRepository contactRepository;
+    private final UserRepository userRepository;
+    private final ContactDuplicateRepository duplicateRepository;
+    private final ContactService contactService;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final DuplicateFinder finder;
+    private final ForkJoinPool pool;
+    // Users with a scan queued or running, so repeated requests don't pile up
+    private final Set<Long> scanning = ConcurrentHashMap.newKeySet();
+
+    public ContactDuplicateService(ContactRepository contactRepository, UserRepository userRepository,
+                                   ContactDuplicateRepository duplicateRepository, ContactService contactService,
+                                   PhoneNumberNormalizer normalizer, EntityManager entityManager, Validator validator,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${contactmanager.duplicates.parallelism:0}") int parallelism) {
+        this.contactRepository = contactRepository;
+        this.userRepository = userRepository;
+        this.duplicateRepository = duplicateRepository;
+        this.contactService = contactService;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.finder = new DuplicateFinder(normalizer::toE164);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Replaces the user's stored duplicate groups with a fresh scan of their contacts.
+     *
+     * @return the number of groups found
+     */
+    public int scanUser(Long userId) {
+        Integer groups = transactionTemplate.execute(status -> {
+            List<List<ContactView>> found = finder.findGroups(contactRepository.findViewsByUserId(userId));
+            duplicateRepository.deleteByUserId(userId);
+            for (List<ContactView> group : found) {
+                long groupId = group.get(0).id();
+                for (ContactView contact : group) {
+                    entityManager.persist(new ContactDuplicate(userId, groupId,
+                        entityManager.getReference(Contact.class, contact.id())));
+                }
+            }
+            return found.size();
+        });
+        return groups == null ? 0 : groups;
+    }
+
+    // Queues a scan of one user's contacts; false if one is already queued or running
+    public boolean scanUserAsync(Long userId) {
+        if (!scanning.add(userId)) {
+            return false;
+        }
+        pool.execute(() -> {
+            try {
+                scanUser(userId);
+            } catch (RuntimeException ex) {
+                log.warn("Duplicate scan failed for user {}", userId, ex);
+            } finally {
+                scanning.remove(userId);
+            }
+        });
+        return true;
+    }
+
+    // Nightly scan of every address book, spread across the pool
+    @Scheduled(cron = "${contactmanager.duplicates.cron:0 0 3 * * *}")
+    public void scanAll() {
+        List<Long> userIds = userRepository.findAllIds();
+        long started = System.nanoTime();
+        pool.submit(() -> userIds.parallelStream()
+            .filter(scanning::add)
+            .forEach(userId -> {
+                try {
+                    scanUser(userId);
+                } catch (RuntimeException ex) {
+                    log.warn("Duplicate scan failed for user {}", userId, ex);
+                } finally {
+                    scanning.remove(userId);
+                }
+            })).join();
+        log.info("Duplicate scan of {} users took {} ms", userIds.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ContactDuplicateGroup> findGroups(Long userId) {
+        List<ContactDuplicateGroup> groups = new ArrayList<>();
+        List<ContactView> current = null;
+        long currentGroup = 0;
+        for (Object[] row : duplicateRepository.findGroupRowsByUserId(userId)) {
+            long groupId = (Long) row[0];
+            if (current == null || groupId != currentGroup) {
+                addIfStillDuplicated(groups, currentGroup, current);
+                current = new ArrayList<>();
+                currentGroup = groupId;
+            }
+            current.add(new ContactView((Long) row[1], (String) row[2], (String) row[3], (String) row[4]));
+        }
+        addIfStillDuplicated(groups, currentGroup, current);
+        return groups;
+    }
+
+    /**
+     * Deletes the source contacts and keeps the target, applying any replacement fields from the request.
+     * Empty if the target or any source does not belong to the user.
+     *
+     * @throws IllegalArgumentException if the request is incomplete or the merged contact would be invalid
+     */
+    @Transactional
+    public Optional<ContactView> merge(Long userId, ContactMergeRequest request) {
+        if (request.targetId() == null || request.sourceIds() == null || request.sourceIds().isEmpty()) {
+            throw new IllegalArgumentException("targetId and sourceIds are required");
+        }
+        Set<Long> sourceIds = new LinkedHashSet<>(request.sourceIds());
+        sourceIds.remove(request.targetId());
+        Optional<Contact> target = contactService.findOwned(request.targetId(), userId);
+        if (target.isEmpty() || contactRepository.findByUserIdAndIdIn(userId, sourceIds).size() != sourceIds.size()) {
+            return Optional.empty();
+        }
+
+        Contact merged = new Contact(
+            request.name() != null ? request.name() : target.get().getName(),
+            request.email() != null ? request.email() : target.get().getEmail(),
+            request.phone() != null ? request.phone() : target.get().getPhone());
+        String error = Violations.describe(validator, merged);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        Contact updated = contactService.update(request.targetId(), userId, merged).orElseThrow();
+        for (Long sourceId : sourceIds) {
+            contactService.delete(sourceId, userId);
+        }
+        return Optional.of(ContactView.of(updated));
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    // Merges and deletes since the scan can leave a group with a single member
+    private static void addIfStillDuplicated(List<ContactDuplicateGroup> groups, long groupId, List<ContactView> contacts) {
+        if (contacts != null && contacts.size() > 1) {
+            groups.add(new ContactDuplicateGroup(groupId, contacts));
+        }
+    }
+}
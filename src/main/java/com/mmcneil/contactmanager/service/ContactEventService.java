@@ -0,0 +1,229 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.exception.SyncTokenExpiredException;
+import com.mmcneil.contactmanager.model.ContactChanges;
+import com.mmcneil.contactmanager.model.ContactSyncToken;
+import com.mmcneil.contactmanager.model.ContactView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed contact changes to each user's open Server-Sent Events streams. Publishing never blocks
+ * the committing thread: events go into a small bounded queue per subscriber that a shared sender pool drains.
+ * A subscriber whose queue is full is too slow to keep up and is disconnected; its client reconnects with
+ * Last-Event-ID and catches up from delta sync instead of the server buffering for it.
+ */
+@Service
+public class ContactEventService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactEventService.class);
+
+    private final ContactSyncService syncService;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final ExecutorService sender;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    public ContactEventService(ContactSyncService syncService,
+                               @Value("${contactmanager.events.buffer-size:256}") int bufferSize,
+                               @Value("${contactmanager.events.timeout:30m}") Duration timeout,
+                               @Value("${contactmanager.events.sender-threads:4}") int senderThreads) {
+        this.syncService = syncService;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sender = Executors.newFixedThreadPool(senderThreads);
+    }
+
+    /**
+     * Opens a stream for the user. With {@code lastEventId}, changes since then are replayed first; if there
+     * are more than one delta sync page, or the id has expired, a {@code reset} event tells the client to
+     * resync through {@code /api/contacts/changes} instead.
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // Registered before the replay so nothing committed meanwhile is missed, but held until it is sent so
+        // live events can't overtake older replayed state. Duplicates are harmless: every event is an upsert
+        // or delete of the whole contact
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(ex -> unsubscribe(subscriber));
+
+        try {
+            if (lastEventId != null && !lastEventId.isEmpty()) {
+                replay(userId, lastEventId, emitter);
+            }
+        } catch (IOException ex) {
+            unsubscribe(subscriber);
+            emitter.completeWithError(ex);
+            return emitter;
+        }
+        subscriber.sending.set(false);
+        subscriber.scheduleDrain();
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @EventListener
+    public void onContactsCommitted(ContactRevisionEvent event) {
+        Set<Subscriber> userSubscribers = subscribers.get(event.userId());
+        if (userSubscribers == null || userSubscribers.isEmpty()) {
+            return;
+        }
+        // In contact id order, as replay serves them: each event's id is its (revision, contact id) token and a
+        // reconnect resumes after it, so nothing later in that order may have gone out before it. The last one
+        // completes the revision
+        List<ContactChangedEvent> changes = event.changes().stream()
+            .sorted(Comparator.comparingLong(ContactChangedEvent::contactId))
+            .toList();
+        for (int i = 0; i < changes.size(); i++) {
+            ContactChangedEvent change = changes.get(i);
+            Message message = toMessage(change, i == changes.size() - 1
+                ? ContactSyncToken.endOf(event.revision())
+                : new ContactSyncToken(event.revision(), change.contactId()));
+            for (Subscriber subscriber : userSubscribers) {
+                subscriber.offer(message);
+            }
+        }
+    }
+
+    // Keeps idle streams from being cut by proxies, and finds clients that went away without closing
+    @Scheduled(fixedDelayString = "${contactmanager.events.heartbeat:PT30S}")
+    public void sendHeartbeats() {
+        Message heartbeat = new Message(null, null, null, "heartbeat");
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.offer(heartbeat)));
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        sender.shutdownNow();
+    }
+
+    private void replay(Long userId, String lastEventId, SseEmitter emitter) throws IOException {
+        ContactChanges changes;
+        try {
+            changes = syncService.changesSince(userId, lastEventId, ContactSyncService.MAX_LIMIT);
+        } catch (IllegalArgumentException | SyncTokenExpiredException ex) {
+            emitter.send(SseEmitter.event().name("reset").data("{}"));
+            return;
+        }
+        if (changes.hasMore()) {
+            emitter.send(SseEmitter.event().name("reset").data("{}"));
+            return;
+        }
+        // Replayed changes don't have tokens of their own; the batch's token goes on the last one
+        int remaining = changes.updated().size() + changes.deleted().size();
+        for (ContactView contact : changes.updated()) {
+            SseEmitter.SseEventBuilder message = SseEmitter.event().name("updated").data(contact);
+            emitter.send(--remaining == 0 ? message.id(changes.token()) : message);
+        }
+        for (Long id : changes.deleted()) {
+            SseEmitter.SseEventBuilder message = SseEmitter.event().name("deleted").data(Map.of("id", id));
+            emitter.send(--remaining == 0 ? message.id(changes.token()) : message);
+        }
+    }
+
+    private static Message toMessage(ContactChangedEvent change, ContactSyncToken token) {
+        Object data = change.contact() != null ? change.contact() : Map.of("id", change.contactId());
+        return new Message(token.encode(), change.type().name().toLowerCase(Locale.ROOT), data, null);
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (userId, userSubscribers) -> {
+            userSubscribers.remove(subscriber);
+            return userSubscribers.isEmpty() ? null : userSubscribers;
+        });
+    }
+
+    // What is queued for each subscriber. SseEventBuilder is not: build() appends to the builder on every call, so
+    // one builder shared by several senders would be built concurrently. Each send builds a fresh one instead
+    private record Message(String id, String name, Object data, String comment) {
+
+        private SseEmitter.SseEventBuilder toEvent() {
+            SseEmitter.SseEventBuilder event = SseEmitter.event();
+            if (comment != null) {
+                return event.comment(comment);
+            }
+            return event.id(id).name(name).data(data);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue = new ArrayBlockingQueue<>(bufferSize);
+        // True while a sender owns the emitter (or the replay still does), so only one thread ever writes to it
+        private final AtomicBoolean sending = new AtomicBoolean(true);
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Message message) {
+            if (!queue.offer(message)) {
+                log.debug("Dropping slow event subscriber for user {}", userId);
+                unsubscribe(this);
+                emitter.complete();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!queue.isEmpty() && sending.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Message message;
+                while ((message = queue.poll()) != null) {
+                    emitter.send(message.toEvent());
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // Client disconnected, or the emitter was already completed
+                unsubscribe(this);
+                queue.clear();
+                return;
+            } catch (RuntimeException ex) {
+                // Anything else (e.g. a serialization failure) would otherwise leave sending set, silencing the stream
+                log.warn("Closing event stream for user {} after a failed send", userId, ex);
+                unsubscribe(this);
+                queue.clear();
+                emitter.completeWithError(ex);
+                return;
+            }
+            sending.set(false);
+            // Something may have been queued after the last poll but before the flag was released
+            scheduleDrain();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.mmcneil.contactmanager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class ContactExportService {
+
+    // How many records to write between explicit flushes of the response
+    private static final int FLUSH_INTERVAL = 500;
+
+    private final ContactRepository contactRepository;
+    private final ObjectWriter contactWriter;
+    private final ObjectMapper objectMapper;
+
+    public ContactExportService(ContactRepository contactRepository, ObjectMapper objectMapper) {
+        this.contactRepository = contactRepository;
+        this.objectMapper = objectMapper;
+        this.contactWriter = objectMapper.writerFor(ContactView.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Writes every contact owned by the user to {@code out} as newline-delimited JSON, one record per line.
+     * Rows are read through a database cursor as projections, so nothing accumulates in the persistence
+     * context and memory use stays flat no matter how large the address book is.
+     *
+     * @return the number of contacts written
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(Long userId, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<ContactView> contacts = contactRepository.streamByUserId(userId);
+             JsonGenerator generator = objectMapper.createGenerator(out)) {
+            // Records are separated by our own newlines rather than Jackson's default space
+            generator.setRootValueSeparator(null);
+            Iterator<ContactView> iterator = contacts.iterator();
+            while (iterator.hasNext()) {
+                contactWriter.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                if (++count % FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+}
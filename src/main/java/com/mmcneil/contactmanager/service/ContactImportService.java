@@ -0,0 +1,119 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.importer.ContactImportException;
+import com.mmcneil.contactmanager.importer.ContactRecord;
+import com.mmcneil.contactmanager.importer.ContactRecordReader;
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactImportResult;
+import com.mmcneil.contactmanager.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class ContactImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactImportService.class);
+
+    // Rows written per transaction; a multiple of hibernate.jdbc.batch_size
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ContactImportService(EntityManager entityManager, Validator validator, PlatformTransactionManager transactionManager,
+                                ApplicationEventPublisher eventPublisher) {
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Imports every record from the reader into the user's contacts. Rows are validated with the
+     * constraints declared on {@link Contact}; valid rows are written in chunks of {@value #CHUNK_SIZE},
+     * each in its own transaction, and the persistence context is cleared after each chunk so memory use
+     * does not grow with the file. Invalid rows are counted and reported but do not stop the import. A file that
+     * turns out to be malformed partway through stops it: the rows read until then are still imported, and the
+     * result carries the error so the client knows how far it got.
+     */
+    public ContactImportResult importContacts(Long userId, ContactRecordReader reader) throws IOException {
+        long processed = 0;
+        long imported = 0;
+        long failed = 0;
+        List<ContactImportResult.RowError> errors = new ArrayList<>();
+        List<Contact> chunk = new ArrayList<>(CHUNK_SIZE);
+        ContactImportResult.RowError fatalError = null;
+
+        while (true) {
+            ContactRecord record;
+            try {
+                record = reader.next();
+            } catch (ContactImportException ex) {
+                // Earlier chunks have committed already, so report how far the import got rather than failing it
+                fatalError = new ContactImportResult.RowError(ex.getLine(), ex.getMessage());
+                break;
+            }
+            if (record == null) {
+                break;
+            }
+            processed++;
+            Contact contact = new Contact(record.name(), record.email(), record.phone());
+            String error = Violations.describe(validator, contact);
+            if (error != null) {
+                failed++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new ContactImportResult.RowError(record.line(), error));
+                }
+                continue;
+            }
+            chunk.add(contact);
+            if (chunk.size() == CHUNK_SIZE) {
+                imported += writeChunk(userId, chunk);
+                log.info("Import for user {}: {} rows processed, {} imported, {} failed", userId, processed, imported, failed);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            imported += writeChunk(userId, chunk);
+        }
+        if (fatalError != null) {
+            log.info("Import for user {} stopped at line {}: {} rows processed, {} imported, {} failed", userId,
+                fatalError.line(), processed, imported, failed);
+        } else {
+            log.info("Import for user {} finished: {} rows processed, {} imported, {} failed", userId, processed, imported, failed);
+        }
+        return new ContactImportResult(processed, imported, failed, errors, fatalError);
+    }
+
+    private int writeChunk(Long userId, List<Contact> chunk) {
+        int size = chunk.size();
+        transactionTemplate.executeWithoutResult(status -> {
+            // A reference is enough to set the foreign key and survives the clear() below
+            User owner = entityManager.getReference(User.class, userId);
+            for (Contact contact : chunk) {
+                contact.setUser(owner);
+                entityManager.persist(contact);
+            }
+            entityManager.flush();
+            entityManager.clear();
+            // Delivered to transactional listeners once this chunk commits
+            for (Contact contact : chunk) {
+                eventPublisher.publishEvent(ContactChangedEvent.created(userId, contact));
+            }
+        });
+        chunk.clear();
+        return size;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mmcneil.contactmanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mmcneil.contactmanager.model.ContactList;
+import com.mmcneil.contactmanager.security.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.InteractiveAuthenticationSuccessEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Each user's full contact list, held as a compact {@link ContactListSnapshot} so the contact page and
+ * GET /api/contacts are served without a query. The cache is bounded by the approximate bytes the snapshots
+ * retain rather than by user count, so a few very large address books cannot crowd out memory while many small
+ * ones fit easily. Snapshots are loaded on first use (or warmed at login) and patched from committed changes.
+ * Each snapshot carries the revision it reflects; one found behind the database, e.g. after a write on another
+ * instance, is reloaded before it is served.
+ */
+@Service
+public class ContactListCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactListCache.class);
+
+    private final ContactService contactService;
+    private final Cache<Long, ContactListSnapshot> lists;
+
+    public ContactListCache(ContactService contactService,
+                            @Value("${contactmanager.contact-list-cache.max-weight:64MB}") DataSize maxWeight,
+                            @Value("${contactmanager.contact-list-cache.idle-ttl:30m}") Duration idleTtl) {
+        this.contactService = contactService;
+        this.lists = Caffeine.newBuilder()
+            .maximumWeight(maxWeight.toBytes())
+            .weigher((Long userId, ContactListSnapshot snapshot) -> snapshot.weight())
+            .expireAfterAccess(idleTtl)
+            .recordStats()
+            .build();
+    }
+
+    public ContactList get(Long userId) {
+        return get(userId, contactService.contactsVersion(userId));
+    }
+
+    // The user's list at minRevision or later
+    public ContactList get(Long userId, long minRevision) {
+        ContactListSnapshot snapshot = lists.get(userId, this::load);
+        if (snapshot.revision() < minRevision) {
+            snapshot = lists.asMap().compute(userId, (id, current) ->
+                current != null && current.revision() >= minRevision ? current : load(id));
+        }
+        return new ContactList(snapshot.revision(), snapshot.views());
+    }
+
+    // ContactVersionService publishes this once per committed transaction with the last change to each contact,
+    // so a batch or import replaces a snapshot once rather than once per row. Users without a snapshot are skipped;
+    // theirs will be loaded from the committed rows when next needed
+    @EventListener
+    public void onContactsCommitted(ContactRevisionEvent event) {
+        // computeIfPresent waits for an in-flight load of the same user, so the changes are never lost. Each
+        // transaction bumps the revision by one: older revisions are already reflected, and a gap means a change
+        // was missed or arrived out of order, so the snapshot is dropped and reloaded when next needed
+        lists.asMap().computeIfPresent(event.userId(), (userId, snapshot) -> {
+            if (event.revision() <= snapshot.revision()) {
+                return snapshot;
+            }
+            if (event.revision() != snapshot.revision() + 1) {
+                log.debug("Contact list of user {} is at revision {} but got {}; reloading", userId,
+                    snapshot.revision(), event.revision());
+                return null;
+            }
+            return snapshot.apply(event.revision(), event.changes());
+        });
+    }
+
+    // Form logins are usually followed by the contact page, so its list is loaded off the login request's thread
+    @EventListener
+    public void onLogin(InteractiveAuthenticationSuccessEvent event) {
+        if (event.getAuthentication().getPrincipal() instanceof AuthenticatedUser user
+            && lists.getIfPresent(user.getId()) == null) {
+            CompletableFuture.runAsync(() -> lists.get(user.getId(), this::load))
+                .exceptionally(ex -> {
+                    log.warn("Could not warm the contact list of user {}", user.getId(), ex);
+                    return null;
+                });
+        }
+    }
+
+    public CacheStats getCacheStats() {
+        return lists.stats();
+    }
+
+    public Cache<Long, ?> getCache() {
+        return lists;
+    }
+
+    private ContactListSnapshot load(Long userId) {
+        ContactList list = contactService.loadList(userId);
+        return ContactListSnapshot.of(list.revision(), list.contacts());
+    }
+}
@@ -0,0 +1,137 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.ContactView;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * One user's contact list as parallel arrays: no per-contact objects, so it costs little more than its strings.
+ * Immutable; changes produce a new snapshot. {@link #views()} hands out ContactViews created on access.
+ * {@link #revision()} is the address book revision the contents reflect.
+ */
+final class ContactListSnapshot {
+
+    private final long revision;
+    private final long[] ids;
+    private final String[] names;
+    private final String[] emails;
+    private final String[] phones;
+    private final int weight;
+
+    private ContactListSnapshot(long revision, long[] ids, String[] names, String[] emails, String[] phones, int size) {
+        this.revision = revision;
+        this.ids = size == ids.length ? ids : Arrays.copyOf(ids, size);
+        this.names = size == names.length ? names : Arrays.copyOf(names, size);
+        this.emails = size == emails.length ? emails : Arrays.copyOf(emails, size);
+        this.phones = size == phones.length ? phones : Arrays.copyOf(phones, size);
+        this.weight = weigh();
+    }
+
+    static ContactListSnapshot of(long revision, List<ContactView> contacts) {
+        int size = contacts.size();
+        long[] ids = new long[size];
+        String[] names = new String[size];
+        String[] emails = new String[size];
+        String[] phones = new String[size];
+        for (int i = 0; i < size; i++) {
+            ContactView contact = contacts.get(i);
+            ids[i] = contact.id();
+            names[i] = contact.name();
+            emails[i] = contact.email();
+            phones[i] = contact.phone();
+        }
+        return new ContactListSnapshot(revision, ids, names, emails, phones, size);
+    }
+
+    long revision() {
+        return revision;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    // Approximate bytes retained, for the cache's weigher
+    int weight() {
+        return weight;
+    }
+
+    List<ContactView> views() {
+        return new Views();
+    }
+
+    /**
+     * A copy at {@code revision} with the changes applied in one pass: updates stay in place, deletes drop out
+     * and creates are appended. Applying a change the snapshot already reflects is harmless.
+     */
+    ContactListSnapshot apply(long revision, Collection<ContactChangedEvent> changes) {
+        Map<Long, ContactChangedEvent> pending = new LinkedHashMap<>();
+        for (ContactChangedEvent change : changes) {
+            pending.put(change.contactId(), change);
+        }
+        int capacity = ids.length + pending.size();
+        long[] newIds = new long[capacity];
+        String[] newNames = new String[capacity];
+        String[] newEmails = new String[capacity];
+        String[] newPhones = new String[capacity];
+        int size = 0;
+        for (int i = 0; i < ids.length; i++) {
+            ContactChangedEvent change = pending.remove(ids[i]);
+            if (change == null) {
+                newIds[size] = ids[i];
+                newNames[size] = names[i];
+                newEmails[size] = emails[i];
+                newPhones[size] = phones[i];
+                size++;
+            } else if (change.type() != ContactChangedEvent.Type.DELETED) {
+                set(newIds, newNames, newEmails, newPhones, size++, change.contact());
+            }
+        }
+        for (ContactChangedEvent change : pending.values()) {
+            if (change.type() != ContactChangedEvent.Type.DELETED) {
+                set(newIds, newNames, newEmails, newPhones, size++, change.contact());
+            }
+        }
+        return new ContactListSnapshot(revision, newIds, newNames, newEmails, newPhones, size);
+    }
+
+    private static void set(long[] ids, String[] names, String[] emails, String[] phones, int index, ContactView contact) {
+        ids[index] = contact.id();
+        names[index] = contact.name();
+        emails[index] = contact.email();
+        phones[index] = contact.phone();
+    }
+
+    // Object and array headers, a long and three references per contact, and each string's header plus its
+    // characters (one byte each, as most contact data fits compact Latin-1 strings)
+    private int weigh() {
+        long bytes = 16 + 4 * 16 + (long) ids.length * (8 + 3 * 4);
+        for (int i = 0; i < ids.length; i++) {
+            bytes += stringBytes(names[i]) + stringBytes(emails[i]) + stringBytes(phones[i]);
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+
+    private final class Views extends AbstractList<ContactView> implements RandomAccess {
+
+        @Override
+        public ContactView get(int index) {
+            return new ContactView(ids[index], names[index], emails[index], phones[index]);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactNameKey;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.repository.ContactNameKeyRepository;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fuzzy name search ("Jon Smyth" finds "John Smith"). Each contact's name is stored as phonetic and
+ * normalized-word keys in {@code contact_name_key}; a search looks up the query's keys, which only touches
+ * matching rows, and then ranks that small candidate set by edit distance.
+ */
+@Service
+public class ContactNameKeyService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactNameKeyService.class);
+
+    // Upper bound on candidates ranked per search, so a very common key can't turn it into a scan
+    static final int MAX_CANDIDATES = 500;
+    static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final ContactNameKeyRepository nameKeyRepository;
+    private final ContactRepository contactRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public ContactNameKeyService(ContactNameKeyRepository nameKeyRepository, ContactRepository contactRepository,
+                                 EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.nameKeyRepository = nameKeyRepository;
+        this.contactRepository = contactRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ContactView> search(Long userId, String query, int limit) {
+        List<String> queryWords = NameKeys.words(query);
+        Set<String> keys = NameKeys.keys(query);
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = nameKeyRepository.findContactIds(userId, keys, Limit.of(MAX_CANDIDATES));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        record Ranked(ContactView contact, int distance) {
+        }
+        return contactRepository.findViewsByUserIdAndIdIn(userId, ids).stream()
+            .map(contact -> new Ranked(contact, NameKeys.distance(queryWords, NameKeys.words(contact.name()))))
+            .sorted(Comparator.comparingInt(Ranked::distance)
+                .thenComparing(ranked -> ranked.contact().name())
+                .thenComparingLong(ranked -> ranked.contact().id()))
+            .limit(limit)
+            .map(Ranked::contact)
+            .toList();
+    }
+
+    // Runs inside the writing transaction so keys commit (or roll back) together with the contact.
+    // Deletes only leave a tombstone, so the foreign key never cascades; the keys are removed here instead of
+    // taking up candidate slots in every search that matches them
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onContactChanged(ContactChangedEvent event) {
+        switch (event.type()) {
+            case CREATED -> writeKeys(event.contactId(), event.userId(), event.contact().name());
+            case UPDATED -> {
+                nameKeyRepository.deleteByContactId(event.contactId());
+                writeKeys(event.contactId(), event.userId(), event.contact().name());
+            }
+            case DELETED -> nameKeyRepository.deleteByContactId(event.contactId());
+        }
+    }
+
+    /**
+     * Writes keys for contacts that don't have any yet (those created before this table existed), one batch
+     * per transaction. Safe to run repeatedly.
+     *
+     * @return the number of contacts processed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public long backfill() {
+        long processed = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            List<Object[]> batch = transactionTemplate.execute(status -> {
+                List<Object[]> rows = nameKeyRepository.findContactsWithoutKeys(from, Limit.of(BACKFILL_BATCH_SIZE));
+                for (Object[] row : rows) {
+                    writeKeys((Long) row[0], (Long) row[1], (String) row[2]);
+                }
+                entityManager.flush();
+                entityManager.clear();
+                return rows;
+            });
+            if (batch == null || batch.isEmpty()) {
+                break;
+            }
+            processed += batch.size();
+            afterId = (Long) batch.get(batch.size() - 1)[0];
+        }
+        if (processed > 0) {
+            log.info("Backfilled name keys for {} contacts", processed);
+        }
+        return processed;
+    }
+
+    private void writeKeys(long contactId, Long userId, String name) {
+        Contact contact = entityManager.getReference(Contact.class, contactId);
+        for (String key : NameKeys.keys(name)) {
+            entityManager.persist(new ContactNameKey(contact, userId, key));
+        }
+    }
+}
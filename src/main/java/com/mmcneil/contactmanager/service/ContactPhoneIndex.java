@@ -0,0 +1,51 @@
+package com.mmcneil.contactmanager.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * E.164 number to contact ids for one user. Ids are kept as primitive arrays since almost every number
+ * belongs to exactly one contact.
+ */
+class ContactPhoneIndex {
+
+    private static final long[] NONE = new long[0];
+
+    private final Map<String, long[]> byNumber = new HashMap<>();
+    private final Map<Long, String> byId = new HashMap<>();
+
+    synchronized void put(long id, String e164) {
+        remove(id);
+        if (e164 == null) {
+            return;
+        }
+        byId.put(id, e164);
+        long[] ids = byNumber.get(e164);
+        if (ids == null) {
+            byNumber.put(e164, new long[] {id});
+        } else {
+            long[] grown = Arrays.copyOf(ids, ids.length + 1);
+            grown[ids.length] = id;
+            byNumber.put(e164, grown);
+        }
+    }
+
+    synchronized void remove(long id) {
+        String e164 = byId.remove(id);
+        if (e164 == null) {
+            return;
+        }
+        long[] ids = byNumber.get(e164);
+        if (ids.length == 1) {
+            byNumber.remove(e164);
+        } else {
+            byNumber.put(e164, Arrays.stream(ids).filter(existing -> existing != id).toArray());
+        }
+    }
+
+    synchronized long[] lookup(String e164) {
+        long[] ids = byNumber.get(e164);
+        return ids == null ? NONE : ids.clone();
+    }
+}
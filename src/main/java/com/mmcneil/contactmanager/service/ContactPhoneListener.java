@@ -0,0 +1,25 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * Keeps {@code Contact.phoneE164} in step with {@code Contact.phone} on every entity insert and update.
+ * Instantiated by Hibernate through Spring's bean container, which supplies the region.
+ */
+public class ContactPhoneListener {
+
+    private final PhoneNumberNormalizer normalizer;
+
+    public ContactPhoneListener(@Value("${contactmanager.phone.default-region:US}") String defaultRegion) {
+        this.normalizer = new PhoneNumberNormalizer(defaultRegion);
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void normalizePhone(Contact contact) {
+        contact.setPhoneE164(normalizer.toE164(contact.getPhone()));
+    }
+}
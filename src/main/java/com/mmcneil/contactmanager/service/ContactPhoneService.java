@@ -0,0 +1,134 @@
+package com.mmcneil.contactmanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Caller-ID lookups: which of a user's contacts has this phone number? Answered from a per-user
+ * {@link ContactPhoneIndex} built from the indexed {@code phone_e164} column and patched from committed
+ * {@link ContactChangedEvent}s, so an unknown number costs no query at all.
+ */
+@Service
+public class ContactPhoneService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactPhoneService.class);
+
+    static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final ContactRepository contactRepository;
+    private final PhoneNumberNormalizer normalizer;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<Long, ContactPhoneIndex> indexes;
+
+    public ContactPhoneService(ContactRepository contactRepository, PhoneNumberNormalizer normalizer,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${contactmanager.phone-index.max-users:10000}") long maxUsers,
+                               @Value("${contactmanager.phone-index.idle-ttl:30m}") Duration idleTtl) {
+        this.contactRepository = contactRepository;
+        this.normalizer = normalizer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.indexes = Caffeine.newBuilder()
+            .maximumSize(maxUsers)
+            .expireAfterAccess(idleTtl)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Returns the user's contacts whose phone normalizes to the same E.164 number as {@code phone}.
+     *
+     * @throws IllegalArgumentException if {@code phone} is not a phone number
+     */
+    @Transactional(readOnly = true)
+    public List<ContactView> findByPhone(Long userId, String phone) {
+        String e164 = normalizer.toE164(phone);
+        if (e164 == null) {
+            throw new IllegalArgumentException("Not a phone number: " + phone);
+        }
+        long[] ids = indexes.get(userId, this::build).lookup(e164);
+        if (ids.length == 0) {
+            return List.of();
+        }
+        return contactRepository.findViewsByUserIdAndIdIn(userId, Arrays.stream(ids).boxed().toList());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContactChanged(ContactChangedEvent event) {
+        // Same normalization as ContactPhoneListener, so the index agrees with the column
+        indexes.asMap().computeIfPresent(event.userId(), (userId, index) -> {
+            if (event.type() == ContactChangedEvent.Type.DELETED) {
+                index.remove(event.contactId());
+            } else {
+                index.put(event.contactId(), normalizer.toE164(event.contact().phone()));
+            }
+            return index;
+        });
+    }
+
+    /**
+     * Fills {@code phone_e164} for contacts written before the column existed, one batch per transaction.
+     * Rows whose phone can't be parsed stay null and are simply passed over again on the next run.
+     *
+     * @return the number of contacts that gained a normalized number
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public long backfill() {
+        long normalized = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            long[] progress = transactionTemplate.execute(status -> {
+                List<Contact> batch = contactRepository.findWithoutPhoneE164(from, Limit.of(BACKFILL_BATCH_SIZE));
+                long updated = 0;
+                for (Contact contact : batch) {
+                    // Dirty checking (and ContactPhoneListener) writes it back at commit
+                    contact.setPhoneE164(normalizer.toE164(contact.getPhone()));
+                    if (contact.getPhoneE164() != null) {
+                        updated++;
+                    }
+                }
+                return batch.isEmpty() ? null : new long[] {batch.get(batch.size() - 1).getId(), updated};
+            });
+            if (progress == null) {
+                break;
+            }
+            afterId = progress[0];
+            normalized += progress[1];
+        }
+        if (normalized > 0) {
+            log.info("Backfilled phone_e164 for {} contacts", normalized);
+        }
+        return normalized;
+    }
+
+    public Cache<Long, ?> getCache() {
+        return indexes;
+    }
+
+    private ContactPhoneIndex build(Long userId) {
+        ContactPhoneIndex index = new ContactPhoneIndex();
+        for (Object[] row : contactRepository.findPhoneNumbersByUserId(userId)) {
+            index.put((Long) row[0], (String) row[1]);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,115 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.ContactView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted-term index over one user's contacts. Every contact contributes a term for its full name, each
+ * word of the name, its email and its phone digits; a prefix query is then a range scan over the terms.
+ * Reads are lock-free; writers are serialized so a contact's old terms are always removed with its new
+ * ones added.
+ */
+class ContactPrefixIndex {
+
+    // Separates the term from the contact id so equal terms from different contacts get distinct keys
+    private static final char SEPARATOR = '\u0000';
+
+    private final NavigableMap<String, ContactView> terms = new ConcurrentSkipListMap<>();
+    private final Map<Long, ContactView> byId = new HashMap<>();
+
+    ContactPrefixIndex(Collection<ContactView> contacts) {
+        contacts.forEach(this::put);
+    }
+
+    synchronized void put(ContactView contact) {
+        remove(contact.id());
+        byId.put(contact.id(), contact);
+        for (String term : termsOf(contact)) {
+            terms.put(term + SEPARATOR + contact.id(), contact);
+        }
+    }
+
+    synchronized void remove(long id) {
+        ContactView previous = byId.remove(id);
+        if (previous != null) {
+            for (String term : termsOf(previous)) {
+                terms.remove(term + SEPARATOR + id);
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} distinct contacts with a term starting with {@code query}, ordered by the
+     * matching term. Phone-like queries also match phone numbers regardless of formatting.
+     */
+    List<ContactView> search(String query, int limit) {
+        Map<Long, ContactView> matches = new LinkedHashMap<>();
+        String normalized = query.trim().toLowerCase(Locale.ROOT);
+        if (!normalized.isEmpty()) {
+            collect(normalized, limit, matches);
+        }
+        String digits = phoneDigits(query);
+        if (digits != null && !digits.equals(normalized)) {
+            collect(digits, limit, matches);
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    synchronized int size() {
+        return byId.size();
+    }
+
+    private void collect(String prefix, int limit, Map<Long, ContactView> matches) {
+        // Every key starting with prefix sorts between prefix and prefix + the highest char
+        for (ContactView contact : terms.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+            if (matches.size() >= limit) {
+                return;
+            }
+            matches.putIfAbsent(contact.id(), contact);
+        }
+    }
+
+    private static List<String> termsOf(ContactView contact) {
+        List<String> result = new ArrayList<>();
+        if (contact.name() != null) {
+            String name = contact.name().trim().toLowerCase(Locale.ROOT);
+            result.add(name);
+            String[] words = name.split("\\s+");
+            // The first word is already covered by the full name
+            for (int i = 1; i < words.length; i++) {
+                result.add(words[i]);
+            }
+        }
+        if (contact.email() != null) {
+            result.add(contact.email().trim().toLowerCase(Locale.ROOT));
+        }
+        String digits = contact.phone() == null ? null : phoneDigits(contact.phone());
+        if (digits != null) {
+            result.add(digits);
+        }
+        return result;
+    }
+
+    // Digits of a string made only of digits and phone punctuation, or null if it is not phone-like
+    private static String phoneDigits(String value) {
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (" +-().".indexOf(c) < 0) {
+                return null;
+            }
+        }
+        return digits.isEmpty() ? null : digits.toString();
+    }
+}
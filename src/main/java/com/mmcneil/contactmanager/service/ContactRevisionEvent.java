@@ -0,0 +1,11 @@
+package com.mmcneil.contactmanager.service;
+
+import java.util.List;
+
+/**
+ * Published by ContactVersionService once a transaction that changed a user's contacts has committed: the
+ * changes (the last one per contact) and the revision they were stamped with, the same revision delta sync
+ * serves them under. Listeners run on the committing thread after commit, so they must not block.
+ */
+public record ContactRevisionEvent(Long userId, long revision, List<ContactChangedEvent> changes) {
+}
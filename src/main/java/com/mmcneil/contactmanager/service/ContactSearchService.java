@@ -0,0 +1,125 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Ranked free-text search across a user's contacts. On PostgreSQL this runs against the generated
+ * {@code search_vector} column and trigram index created by the {@code V2__contact_search} migration: every
+ * query word must prefix-match a word of the name, email or phone, or the whole query must be similar enough
+ * to the name to catch typos. Other databases (H2 in tests) get a portable fallback that narrows candidates with
+ * LIKE and ranks them in Java, without typo tolerance.
+ */
+@Service
+public class ContactSearchService {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+
+    private static final String POSTGRES_SEARCH = """
+        select c.id, c.name, c.email, c.phone
+        from contact c
+        where c.user_id = :userId
+          and c.deleted = false
+          and (c.search_vector @@ to_tsquery('simple', :tsquery) or c.name % :text)
+        order by ts_rank(c.search_vector, to_tsquery('simple', :tsquery)) + similarity(c.name, :text) desc, c.name, c.id
+        limit :limit
+        """;
+
+    private final ContactRepository contactRepository;
+    private final EntityManager entityManager;
+    private final boolean postgres;
+
+    public ContactSearchService(ContactRepository contactRepository, EntityManager entityManager) {
+        this.contactRepository = contactRepository;
+        this.entityManager = entityManager;
+        this.postgres = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ContactView> search(Long userId, String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        return postgres ? searchPostgres(userId, query.trim(), words, limit) : searchPortable(userId, words, limit);
+    }
+
+    private List<ContactView> searchPostgres(Long userId, String text, List<String> words, int limit) {
+        // Words are letters and digits only, so they can't inject tsquery operators
+        String tsquery = String.join(" & ", words.stream().map(word -> word + ":*").toList());
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = entityManager.createNativeQuery(POSTGRES_SEARCH)
+            .setParameter("userId", userId)
+            .setParameter("tsquery", tsquery)
+            .setParameter("text", text)
+            .setParameter("limit", limit)
+            .getResultList();
+        List<ContactView> results = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            results.add(new ContactView(((Number) row[0]).longValue(), (String) row[1], (String) row[2], (String) row[3]));
+        }
+        return results;
+    }
+
+    private List<ContactView> searchPortable(Long userId, List<String> words, int limit) {
+        // The longest word is the most selective filter; the rest are checked while ranking
+        String longest = words.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        record Ranked(ContactView contact, int score) {
+        }
+        return contactRepository.findViewsByUserIdContaining(userId, longest).stream()
+            .map(contact -> new Ranked(contact, score(contact, words)))
+            .filter(ranked -> ranked.score() > 0)
+            .sorted(Comparator.comparingInt(Ranked::score).reversed()
+                .thenComparing(ranked -> ranked.contact().name())
+                .thenComparingLong(ranked -> ranked.contact().id()))
+            .limit(limit)
+            .map(Ranked::contact)
+            .toList();
+    }
+
+    // 0 unless every query word occurs somewhere; word-prefix matches beat substrings, and name beats email and phone
+    static int score(ContactView contact, List<String> words) {
+        List<String> nameWords = words(contact.name());
+        List<String> otherWords = new ArrayList<>(words(contact.email()));
+        otherWords.addAll(words(contact.phone() == null ? null : contact.phone().replaceAll("[^0-9]", "")));
+        int score = 0;
+        for (String word : words) {
+            if (nameWords.stream().anyMatch(w -> w.startsWith(word))) {
+                score += 4;
+            } else if (otherWords.stream().anyMatch(w -> w.startsWith(word))) {
+                score += 2;
+            } else if (nameWords.stream().anyMatch(w -> w.contains(word)) || otherWords.stream().anyMatch(w -> w.contains(word))) {
+                score += 1;
+            } else {
+                return 0;
+            }
+        }
+        return score;
+    }
+
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text != null) {
+            Matcher matcher = WORD.matcher(text.toLowerCase(Locale.ROOT));
+            while (matcher.find()) {
+                words.add(matcher.group());
+            }
+        }
+        return words;
+    }
+}
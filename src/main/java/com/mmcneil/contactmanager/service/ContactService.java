@@ -0,0 +1,85 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactList;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Single-contact reads and writes shared by the web and REST controllers, plus the full list load behind
+ * {@link ContactListCache}. Every operation is scoped by owner in the query itself, so a contact belonging to
+ * someone else looks exactly like a missing one and the owning user is never loaded just to compare ids. Each
+ * change publishes a {@link ContactChangedEvent}.
+ */
+@Service
+public class ContactService {
+
+    private final ContactRepository contactRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ContactService(ContactRepository contactRepository, UserRepository userRepository,
+                          ApplicationEventPublisher eventPublisher) {
+        this.contactRepository = contactRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // The version and the rows come from one snapshot of the database, so a write committing in between can't
+    // leave the list tagged with a revision it doesn't match
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public ContactList loadList(Long userId) {
+        long revision = userRepository.findContactsVersion(userId).orElse(0L);
+        return new ContactList(revision, contactRepository.findViewsByUserId(userId));
+    }
+
+    // The user's address book revision alone: one lookup by primary key
+    @Transactional(readOnly = true)
+    public long contactsVersion(Long userId) {
+        return userRepository.findContactsVersion(userId).orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Contact> findOwned(long id, Long userId) {
+        return contactRepository.findByIdAndUserId(id, userId);
+    }
+
+    // Always an insert: an id bound from the request would make save() merge into that row, whoever owns it
+    @Transactional
+    public Contact create(Long userId, Contact contact) {
+        contact.setId(0);
+        contact.setUser(userRepository.getReferenceById(userId));
+        Contact saved = contactRepository.save(contact);
+        eventPublisher.publishEvent(ContactChangedEvent.created(userId, saved));
+        return saved;
+    }
+
+    // One SELECT plus an UPDATE at commit, via dirty checking; empty if the user does not own the contact
+    @Transactional
+    public Optional<Contact> update(long id, Long userId, Contact changes) {
+        return contactRepository.findByIdAndUserId(id, userId)
+            .map(contact -> {
+                contact.setName(changes.getName());
+                contact.setEmail(changes.getEmail());
+                contact.setPhone(changes.getPhone());
+                eventPublisher.publishEvent(ContactChangedEvent.updated(userId, contact));
+                return contact;
+            });
+    }
+
+    // A single statement by id and user_id, soft-deleting into a tombstone; false if nothing matched
+    @Transactional
+    public boolean delete(long id, Long userId) {
+        if (contactRepository.deleteByIdAndUserId(id, userId) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(ContactChangedEvent.deleted(userId, id));
+        return true;
+    }
+}
@@ -0,0 +1,72 @@
+package com.mmcneil.contactmanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Search-as-you-type over a user's contacts, served from an in-memory {@link ContactPrefixIndex}.
+ * An index is built from the database on a user's first query and then patched from committed
+ * {@link ContactChangedEvent}s. Indexes of idle users expire, and all of them are softly referenced
+ * so the garbage collector can reclaim them under memory pressure; they are simply rebuilt on demand.
+ */
+@Service
+public class ContactSuggestService {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final ContactRepository contactRepository;
+    private final Cache<Long, ContactPrefixIndex> indexes;
+
+    public ContactSuggestService(ContactRepository contactRepository,
+                                 @Value("${contactmanager.suggest.max-users:10000}") long maxUsers,
+                                 @Value("${contactmanager.suggest.idle-ttl:30m}") Duration idleTtl) {
+        this.contactRepository = contactRepository;
+        this.indexes = Caffeine.newBuilder()
+            .maximumSize(maxUsers)
+            .expireAfterAccess(idleTtl)
+            .softValues()
+            .recordStats()
+            .build();
+    }
+
+    public List<ContactView> suggest(Long userId, String query, int limit) {
+        return indexes.get(userId, this::build).search(query, Math.min(limit, MAX_LIMIT));
+    }
+
+    // Runs after commit so rolled-back writes never reach the index. Users without a loaded index are
+    // skipped; their index will be built from the committed rows when next needed
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContactChanged(ContactChangedEvent event) {
+        // computeIfPresent waits for an in-flight build of the same index, so the change is never lost
+        indexes.asMap().computeIfPresent(event.userId(), (userId, index) -> {
+            if (event.type() == ContactChangedEvent.Type.DELETED) {
+                index.remove(event.contactId());
+            } else {
+                index.put(event.contact());
+            }
+            return index;
+        });
+    }
+
+    public CacheStats getCacheStats() {
+        return indexes.stats();
+    }
+
+    public Cache<Long, ?> getCache() {
+        return indexes;
+    }
+
+    private ContactPrefixIndex build(Long userId) {
+        return new ContactPrefixIndex(contactRepository.findViewsByUserId(userId));
+    }
+}
@@ -0,0 +1,100 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.exception.SyncTokenExpiredException;
+import com.mmcneil.contactmanager.model.ContactChanges;
+import com.mmcneil.contactmanager.model.ContactSyncToken;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Delta sync: everything that changed in a user's address book after a sync token, read in (revision, id)
+ * order from the revisions ContactVersionService stamps. Deletes are served from tombstones, which are kept
+ * for a retention window and then compacted; a token older than the newest compacted tombstone has expired.
+ */
+@Service
+public class ContactSyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactSyncService.class);
+
+    public static final int MAX_LIMIT = 500;
+
+    private final ContactRepository contactRepository;
+    private final UserRepository userRepository;
+    private final Duration tombstoneRetention;
+
+    public ContactSyncService(ContactRepository contactRepository, UserRepository userRepository,
+                              @Value("${contactmanager.sync.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.contactRepository = contactRepository;
+        this.userRepository = userRepository;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * Changes after {@code since}, or the whole address book (without tombstones) when it is null.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     * @throws SyncTokenExpiredException if deletes the client hasn't seen have already been compacted
+     */
+    @Transactional(readOnly = true)
+    public ContactChanges changesSince(Long userId, String since, int limit) {
+        ContactSyncToken from = since == null || since.isEmpty() ? new ContactSyncToken(0, 0) : ContactSyncToken.decode(since);
+        // Fetch one extra row so we know whether there is more without a count query
+        List<Object[]> rows = contactRepository.findChangesByUserIdAfter(userId, from.revision(), from.id(), Limit.of(limit + 1));
+        // Checked after reading, so a compaction that commits in between is still noticed. Tombstones up to and
+        // including the purged revision may be gone, so only a token that saw all of that revision is still good
+        if (since != null && !since.isEmpty()) {
+            long purgedRevision = userRepository.findContactsPurgedRevision(userId).orElse(0L);
+            if (from.revision() < purgedRevision || (from.revision() == purgedRevision && !from.isEndOfRevision())) {
+                throw new SyncTokenExpiredException();
+            }
+        }
+
+        boolean hasMore = rows.size() > limit;
+        List<ContactView> updated = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        ContactSyncToken last = from;
+        for (Object[] row : hasMore ? rows.subList(0, limit) : rows) {
+            long id = ((Number) row[0]).longValue();
+            if (Boolean.TRUE.equals(row[4])) {
+                // A first sync has nothing to delete
+                if (since != null && !since.isEmpty()) {
+                    deleted.add(id);
+                }
+            } else {
+                updated.add(new ContactView(id, (String) row[1], (String) row[2], (String) row[3]));
+            }
+            last = new ContactSyncToken(((Number) row[5]).longValue(), id);
+        }
+        // The page ended with its revision when nothing follows, or what follows is already the next revision
+        if (!rows.isEmpty() && (!hasMore || ((Number) rows.get(limit)[5]).longValue() != last.revision())) {
+            last = ContactSyncToken.endOf(last.revision());
+        }
+        return new ContactChanges(updated, deleted, last.encode(), hasMore);
+    }
+
+    // Drops tombstones past the retention window; clients that synced before them get 410 and start over
+    @Scheduled(cron = "${contactmanager.sync.compaction-cron:0 30 3 * * *}")
+    @Transactional
+    public int compactTombstones() {
+        Instant cutoff = Instant.now().minus(tombstoneRetention);
+        userRepository.markTombstonesPurged(cutoff);
+        int purged = contactRepository.deleteTombstonesBefore(cutoff);
+        if (purged > 0) {
+            log.info("Compacted {} contact tombstones older than {}", purged, cutoff);
+        }
+        return purged;
+    }
+}
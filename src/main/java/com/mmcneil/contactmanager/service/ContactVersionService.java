@@ -0,0 +1,150 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Versions for conditional GETs and delta sync. Each contact carries its own JPA {@code @Version}; each user has
+ * an address book version in {@code users.contacts_version}. Just before a transaction that wrote contacts
+ * commits, the owner's version is bumped once and every contact it touched (tombstones included) is stamped
+ * with the new value as its revision. The bump locks the user row until commit, so one user's revisions
+ * always become visible in increasing order, which is what lets a sync token be a simple high-water mark.
+ * Once the transaction has committed, a {@link ContactRevisionEvent} carries the changes and their revision on.
+ */
+@Service
+public class ContactVersionService {
+
+    // Keeps the IN list of the stamping UPDATE within what every database accepts
+    private static final int STAMP_BATCH_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final ContactRepository contactRepository;
+    private final EntityManager entityManager;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ContactVersionService(UserRepository userRepository, ContactRepository contactRepository,
+                                 EntityManager entityManager, NamedParameterJdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher) {
+        this.userRepository = userRepository;
+        this.contactRepository = contactRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Strong ETag for the user's contact list; the user id is part of it as the URL alone doesn't identify whose list
+    public String collectionETag(Long userId) {
+        return collectionETag(userId, userRepository.findContactsVersion(userId).orElse(0L));
+    }
+
+    public static String collectionETag(Long userId, long version) {
+        return "\"u" + userId + "-" + version + "\"";
+    }
+
+    // Strong ETag for one contact; empty if the user doesn't own it
+    public Optional<String> contactETag(long id, Long userId) {
+        return contactRepository.findVersionByIdAndUserId(id, userId).map(version -> etag(id, version));
+    }
+
+    public static String contactETag(Contact contact) {
+        return etag(contact.getId(), contact.getVersion());
+    }
+
+    private static String etag(long id, long version) {
+        return "\"c" + id + "-" + version + "\"";
+    }
+
+    // Collects the change into the current transaction, so an import of thousands of rows still costs one bump
+    @EventListener
+    public void onContactChanged(ContactChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Long revision = transactionTemplate.execute(status -> stamp(event.userId(), List.of(event.contactId())));
+            eventPublisher.publishEvent(new ContactRevisionEvent(event.userId(), revision, List.of(event)));
+            return;
+        }
+        PendingRevisions pending = (PendingRevisions) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingRevisions();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        // Only the last change to each contact matters; it is what the stamped row now holds
+        pending.changes.computeIfAbsent(event.userId(), userId -> new LinkedHashMap<>()).put(event.contactId(), event);
+    }
+
+    // Plain JDBC in the same transaction. These columns are never read back through entities, and going through
+    // Hibernate would make it evict every cached User and Contact (see the l2cache profile) on each write.
+    // Pending inserts are flushed first so the new rows get stamped too
+    private long stamp(Long userId, List<Long> contactIds) {
+        entityManager.flush();
+        Map<String, Object> user = Map.of("userId", userId);
+        jdbcTemplate.update("update users set contacts_version = contacts_version + 1 where id = :userId", user);
+        long revision = Objects.requireNonNull(
+            jdbcTemplate.queryForObject("select contacts_version from users where id = :userId", user, Long.class));
+        Instant now = Instant.now();
+        for (int from = 0; from < contactIds.size(); from += STAMP_BATCH_SIZE) {
+            jdbcTemplate.update("update contact set revision = :revision, updated_at = :updatedAt where id in (:ids)",
+                Map.of("revision", revision, "updatedAt", Timestamp.from(now),
+                    "ids", contactIds.subList(from, Math.min(from + STAMP_BATCH_SIZE, contactIds.size()))));
+        }
+        return revision;
+    }
+
+    // Bound to the transaction like Spring's own resource holders, and unbound while it is suspended so a
+    // nested REQUIRES_NEW transaction collects (and commits) its own changes
+    private final class PendingRevisions implements TransactionSynchronization {
+
+        // Sorted so transactions touching several users lock their rows in the same order
+        private final Map<Long, Map<Long, ContactChangedEvent>> changes = new TreeMap<>();
+        private final Map<Long, Long> revisions = new LinkedHashMap<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(ContactVersionService.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(ContactVersionService.this, this);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            changes.forEach((userId, byContact) -> revisions.put(userId, stamp(userId, new ArrayList<>(byContact.keySet()))));
+        }
+
+        @Override
+        public void afterCommit() {
+            revisions.forEach((userId, revision) -> eventPublisher.publishEvent(
+                new ContactRevisionEvent(userId, revision, List.copyOf(changes.get(userId).values()))));
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ContactVersionService.this);
+        }
+    }
+}
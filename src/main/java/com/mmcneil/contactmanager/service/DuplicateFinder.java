@@ -0,0 +1,151 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.ContactView;
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Groups one user's contacts into likely duplicates without comparing every pair. Contacts are bucketed by
+ * blocking keys: normalized email, E.164 phone and phonetic name. A shared email or phone is taken as a
+ * match outright; contacts that only sound alike are compared pairwise inside their (small) bucket. Matches
+ * are joined transitively with union-find, so the whole pass is close to linear in the number of contacts.
+ */
+class DuplicateFinder {
+
+    // Phonetic buckets bigger than this are too generic to say anything ("J S" for every John Smith) and skipped
+    static final int MAX_PHONETIC_BLOCK = 100;
+
+    private static final DoubleMetaphone METAPHONE = new DoubleMetaphone();
+
+    private final UnaryOperator<String> phoneNormalizer;
+
+    DuplicateFinder(UnaryOperator<String> phoneNormalizer) {
+        this.phoneNormalizer = phoneNormalizer;
+    }
+
+    // Groups of two or more contacts, each in id order, ordered by their first id
+    List<List<ContactView>> findGroups(List<ContactView> contacts) {
+        int n = contacts.size();
+        UnionFind sets = new UnionFind(n);
+        Map<String, Integer> firstWithKey = new HashMap<>();
+        Map<String, List<Integer>> phoneticBlocks = new HashMap<>();
+        List<List<String>> names = new ArrayList<>(n);
+
+        for (int i = 0; i < n; i++) {
+            ContactView contact = contacts.get(i);
+            String email = contact.email() == null ? "" : contact.email().trim().toLowerCase(Locale.ROOT);
+            if (!email.isEmpty()) {
+                unionWithFirst("E:" + email, i, firstWithKey, sets);
+            }
+            String phone = phoneNormalizer.apply(contact.phone());
+            if (phone != null) {
+                unionWithFirst("P:" + phone, i, firstWithKey, sets);
+            }
+            List<String> words = NameKeys.words(contact.name());
+            names.add(words);
+            String phonetic = phoneticKey(words);
+            if (phonetic != null) {
+                phoneticBlocks.computeIfAbsent(phonetic, key -> new ArrayList<>()).add(i);
+            }
+        }
+
+        for (List<Integer> block : phoneticBlocks.values()) {
+            if (block.size() < 2 || block.size() > MAX_PHONETIC_BLOCK) {
+                continue;
+            }
+            for (int a = 0; a < block.size(); a++) {
+                for (int b = a + 1; b < block.size(); b++) {
+                    int i = block.get(a);
+                    int j = block.get(b);
+                    if (namesMatch(names.get(i), names.get(j))) {
+                        sets.union(i, j);
+                    }
+                }
+            }
+        }
+
+        Map<Integer, List<ContactView>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            groups.computeIfAbsent(sets.find(i), root -> new ArrayList<>()).add(contacts.get(i));
+        }
+        List<List<ContactView>> result = new ArrayList<>();
+        for (List<ContactView> group : groups.values()) {
+            if (group.size() > 1) {
+                group.sort((x, y) -> Long.compare(x.id(), y.id()));
+                result.add(group);
+            }
+        }
+        result.sort((x, y) -> Long.compare(x.get(0).id(), y.get(0).id()));
+        return result;
+    }
+
+    private static void unionWithFirst(String key, int index, Map<String, Integer> firstWithKey, UnionFind sets) {
+        Integer first = firstWithKey.putIfAbsent(key, index);
+        if (first != null) {
+            sets.union(first, index);
+        }
+    }
+
+    // Phonetic codes of the first and last name words, so middle names don't split a bucket
+    private static String phoneticKey(List<String> words) {
+        if (words.isEmpty()) {
+            return null;
+        }
+        String first = METAPHONE.doubleMetaphone(words.get(0));
+        String last = words.size() > 1 ? METAPHONE.doubleMetaphone(words.get(words.size() - 1)) : "";
+        return first + "|" + last;
+    }
+
+    // Sounding alike is not enough on its own: the spelling must also be close
+    private static boolean namesMatch(List<String> a, List<String> b) {
+        String joinedA = String.join(" ", a);
+        String joinedB = String.join(" ", b);
+        int allowed = Math.max(2, Math.min(joinedA.length(), joinedB.length()) / 4);
+        return NameKeys.levenshtein(joinedA, joinedB) <= allowed;
+    }
+
+    static final class UnionFind {
+
+        private final int[] parent;
+        private final int[] size;
+
+        UnionFind(int n) {
+            parent = new int[n];
+            size = new int[n];
+            for (int i = 0; i < n; i++) {
+                parent[i] = i;
+                size[i] = 1;
+            }
+        }
+
+        int find(int i) {
+            while (parent[i] != i) {
+                parent[i] = parent[parent[i]];
+                i = parent[i];
+            }
+            return i;
+        }
+
+        void union(int a, int b) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) {
+                return;
+            }
+            if (size[rootA] < size[rootB]) {
+                int swap = rootA;
+                rootA = rootB;
+                rootB = swap;
+            }
+            parent[rootB] = rootA;
+            size[rootA] += size[rootB];
+        }
+    }
+}
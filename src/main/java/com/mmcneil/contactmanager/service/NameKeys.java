@@ -0,0 +1,96 @@
+package com.mmcneil.contactmanager.service;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Derives the fuzzy-match keys stored in {@code contact_name_key}, and the edit distance used to rank the
+ * candidates they find.
+ */
+final class NameKeys {
+
+    static final String TOKEN_PREFIX = "T:";
+    static final String PHONETIC_PREFIX = "P:";
+
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    // Longest word kept as a token key; the column is 64 characters including the prefix
+    private static final int MAX_TOKEN_LENGTH = 60;
+
+    // encode methods keep no per-call state, so one instance can be shared
+    private static final DoubleMetaphone METAPHONE = new DoubleMetaphone();
+
+    private NameKeys() {
+    }
+
+    // Lower-cased words with accents removed, so "José" and "jose" are the same word
+    static List<String> words(String name) {
+        List<String> words = new ArrayList<>();
+        if (name == null) {
+            return words;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        Matcher matcher = WORD.matcher(folded);
+        while (matcher.find()) {
+            words.add(matcher.group());
+        }
+        return words;
+    }
+
+    static Set<String> keys(String name) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String word : words(name)) {
+            keys.add(TOKEN_PREFIX + (word.length() > MAX_TOKEN_LENGTH ? word.substring(0, MAX_TOKEN_LENGTH) : word));
+            String primary = METAPHONE.doubleMetaphone(word);
+            if (primary != null && !primary.isEmpty()) {
+                keys.add(PHONETIC_PREFIX + primary);
+                keys.add(PHONETIC_PREFIX + METAPHONE.doubleMetaphone(word, true));
+            }
+        }
+        return keys;
+    }
+
+    static int levenshtein(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * How far a name is from the query: each query word is matched to its closest word in the name and the
+     * distances are summed, so word order and extra middle names don't count against a match.
+     */
+    static int distance(List<String> queryWords, List<String> nameWords) {
+        int total = 0;
+        for (String queryWord : queryWords) {
+            int best = queryWord.length();
+            for (String nameWord : nameWords) {
+                best = Math.min(best, levenshtein(queryWord, nameWord));
+            }
+            total += best;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,39 @@
+package com.mmcneil.contactmanager.service;
+
+import com.google.i18n.phonenumbers.NumberParseException;
+import com.google.i18n.phonenumbers.PhoneNumberUtil;
+import com.google.i18n.phonenumbers.Phonenumber;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts free-form phone numbers to E.164 ({@code +15551234567}). Numbers without a country code are read
+ * as belonging to the configured default region. Only the number's length is checked, not whether the
+ * range is actually assigned, so made-up numbers such as 555 test numbers still normalize.
+ */
+@Component
+public class PhoneNumberNormalizer {
+
+    private final PhoneNumberUtil phoneNumberUtil = PhoneNumberUtil.getInstance();
+    private final String defaultRegion;
+
+    public PhoneNumberNormalizer(@Value("${contactmanager.phone.default-region:US}") String defaultRegion) {
+        this.defaultRegion = defaultRegion;
+    }
+
+    // Null if the input can't be a phone number
+    public String toE164(String phone) {
+        if (phone == null || phone.isBlank()) {
+            return null;
+        }
+        try {
+            Phonenumber.PhoneNumber number = phoneNumberUtil.parse(phone, defaultRegion);
+            if (!phoneNumberUtil.isPossibleNumber(number)) {
+                return null;
+            }
+            return phoneNumberUtil.format(number, PhoneNumberUtil.PhoneNumberFormat.E164);
+        } catch (NumberParseException ex) {
+            return null;
+        }
+    }
+}
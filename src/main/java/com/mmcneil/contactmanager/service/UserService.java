@@ -2,13 +2,21 @@ package com.mmcneil.contactmanager.service;
 
 import com.mmcneil.contactmanager.exception.EmailAlreadyExistsException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.mmcneil.contactmanager.exception.UsernameAlreadyExistsException;
 import com.mmcneil.contactmanager.model.RegistrationForm;
 import com.mmcneil.contactmanager.model.User;
 import com.mmcneil.contactmanager.repository.UserRepository;
+import com.mmcneil.contactmanager.security.AccessTokenService;
+import com.mmcneil.contactmanager.security.CustomUserDetailsService;
+
+import java.util.Set;
 
 @Service
 public class UserService {
@@ -17,6 +25,10 @@ public class UserService {
     private UserRepository userRepository;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private AccessTokenService tokenService;
     public void registerUser(RegistrationForm form) {
         if (userRepository.existsByUsername(form.getUsername().toLowerCase())) {
             throw new UsernameAlreadyExistsException();
@@ -31,4 +43,45 @@ public class UserService {
         user.setEmail(form.getEmail().toLowerCase());
         userRepository.save(user);
     }
+
+    // Cached credentials and outstanding tokens must not outlive a password change
+    @Transactional
+    public void changePassword(String username, String newPassword) {
+        User user = findUser(username);
+        user.setPassword(passwordEncoder.encode(newPassword));
+        userRepository.save(user);
+        invalidateAfterCommit(user);
+    }
+
+    @Transactional
+    public void updateRoles(String username, Set<String> roles) {
+        User user = findUser(username);
+        user.setRoles(roles);
+        userRepository.save(user);
+        invalidateAfterCommit(user);
+    }
+
+    // Done before commit, a concurrent login could still read the old row and cache it again, or be issued a
+    // token after the cutoff on the old credentials
+    private void invalidateAfterCommit(User user) {
+        String username = user.getUsername();
+        Long userId = user.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userDetailsService.evict(username);
+            tokenService.revokeAll(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userDetailsService.evict(username);
+                tokenService.revokeAll(userId);
+            }
+        });
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username.toLowerCase())
+            .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+    }
 }
@@ -0,0 +1,25 @@
+package com.mmcneil.contactmanager.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+final class Violations {
+
+    private Violations() {
+    }
+
+    // Null when the target is valid, otherwise "field: message" pairs joined with "; "
+    static String describe(Validator validator, Object target) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(target);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; "));
+    }
+}
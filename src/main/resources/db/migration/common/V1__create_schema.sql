@@ -0,0 +1,69 @@
+-- Tables, sequences and the indexes declared on the entities. Hibernate only validates against this schema
+-- (spring.jpa.hibernate.ddl-auto=validate), so every mapping change needs a migration.
+
+create sequence contact_seq start with 1 increment by 50;
+create sequence contact_name_key_seq start with 1 increment by 50;
+create sequence contact_duplicate_seq start with 1 increment by 50;
+
+create table users (
+    id bigint generated by default as identity,
+    username varchar(255) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    contacts_version bigint default 0 not null,
+    contacts_purged_revision bigint default 0 not null,
+    primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
+
+create table user_roles (
+    user_id bigint not null,
+    role varchar(255),
+    constraint fk_user_roles_user foreign key (user_id) references users (id)
+);
+
+create table contact (
+    id bigint not null,
+    user_id bigint,
+    name varchar(255) not null,
+    email varchar(255) not null,
+    phone varchar(255) not null,
+    phone_e164 varchar(16),
+    version bigint default 0 not null,
+    revision bigint default 0 not null,
+    updated_at timestamp(6) with time zone,
+    deleted boolean default false not null,
+    primary key (id)
+);
+
+-- Name-ordered listing and keyset pages; the trailing id makes the order unique
+create index idx_contact_user_name_id on contact (user_id, name, id);
+create index idx_contact_user_phone_e164 on contact (user_id, phone_e164);
+-- Delta sync reads a user's changes in (revision, id) order
+create index idx_contact_user_revision on contact (user_id, revision, id);
+-- Added after the indexes so databases that index foreign keys themselves (H2) reuse one of them
+alter table contact add constraint fk_contact_user foreign key (user_id) references users (id);
+
+create table contact_name_key (
+    id bigint not null,
+    contact_id bigint not null,
+    user_id bigint not null,
+    name_key varchar(64) not null,
+    primary key (id),
+    constraint fk_contact_name_key_contact foreign key (contact_id) references contact (id) on delete cascade
+);
+
+create index idx_contact_name_key_lookup on contact_name_key (user_id, name_key);
+create index idx_contact_name_key_contact on contact_name_key (contact_id);
+
+create table contact_duplicate (
+    id bigint not null,
+    contact_id bigint not null,
+    user_id bigint not null,
+    group_id bigint not null,
+    primary key (id),
+    constraint fk_contact_duplicate_contact foreign key (contact_id) references contact (id) on delete cascade
+);
+
+create index idx_contact_duplicate_user_group on contact_duplicate (user_id, group_id);
@@ -0,0 +1,48 @@
+-- Brings a schema created by the old ddl-auto=update setup (baselined at V1) up to what V1 creates. Every
+-- statement is a no-op on a database that ran V1 itself, so fresh installs pass through it unchanged.
+
+alter table users add column if not exists contacts_version bigint default 0 not null;
+alter table users add column if not exists contacts_purged_revision bigint default 0 not null;
+
+-- Contact ids were IDENTITY; they now come from contact_seq
+alter table contact alter column id drop identity if exists;
+alter table contact add column if not exists phone_e164 varchar(16);
+alter table contact add column if not exists version bigint default 0 not null;
+alter table contact add column if not exists revision bigint default 0 not null;
+alter table contact add column if not exists updated_at timestamp(6) with time zone;
+alter table contact add column if not exists deleted boolean default false not null;
+
+create sequence if not exists contact_seq start with 1 increment by 50;
+create sequence if not exists contact_name_key_seq start with 1 increment by 50;
+create sequence if not exists contact_duplicate_seq start with 1 increment by 50;
+
+-- Hibernate's pooled optimizer hands out the 50 ids below each value it fetches, so the next fetch has to land at
+-- least a full block past the highest existing id
+select setval('contact_seq', max(id) + 50) from contact having max(id) is not null;
+
+create index if not exists idx_contact_user_name_id on contact (user_id, name, id);
+create index if not exists idx_contact_user_phone_e164 on contact (user_id, phone_e164);
+create index if not exists idx_contact_user_revision on contact (user_id, revision, id);
+
+create table if not exists contact_name_key (
+    id bigint not null,
+    contact_id bigint not null,
+    user_id bigint not null,
+    name_key varchar(64) not null,
+    primary key (id),
+    constraint fk_contact_name_key_contact foreign key (contact_id) references contact (id) on delete cascade
+);
+
+create index if not exists idx_contact_name_key_lookup on contact_name_key (user_id, name_key);
+create index if not exists idx_contact_name_key_contact on contact_name_key (contact_id);
+
+create table if not exists contact_duplicate (
+    id bigint not null,
+    contact_id bigint not null,
+    user_id bigint not null,
+    group_id bigint not null,
+    primary key (id),
+    constraint fk_contact_duplicate_contact foreign key (contact_id) references contact (id) on delete cascade
+);
+
+create index if not exists idx_contact_duplicate_user_group on contact_duplicate (user_id, group_id);
@@ -0,0 +1,18 @@
+-- Full-text search over contacts (see ContactSearchService)
+create extension if not exists pg_trgm;
+
+-- Name words weigh most; email and phone are split into searchable pieces ("alice@acme.com" -> alice, acme, com)
+alter table contact add column search_vector tsvector
+    generated always as (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', regexp_replace(coalesce(email, ''), '[^[:alnum:]]+', ' ', 'g')), 'B') ||
+        setweight(to_tsvector('simple', regexp_replace(coalesce(phone, ''), '[^0-9]+', '', 'g')), 'C')
+    ) stored;
+
+create index idx_contact_search_vector on contact using gin (search_vector);
+
+-- Trigram index so misspelled names can still be found with the % similarity operator
+create index idx_contact_name_trgm on contact using gin (name gin_trgm_ops);
+
+-- Tombstone compaction (ContactSyncService) only ever looks at deleted rows
+create index idx_contact_tombstone_updated_at on contact (updated_at) where deleted;
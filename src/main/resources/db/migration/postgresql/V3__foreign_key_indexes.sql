@@ -0,0 +1,4 @@
+-- PostgreSQL does not index the referencing side of a foreign key. Roles are read with every user load, and
+-- deleting contacts (tombstone compaction, merges) cascades into contact_duplicate by contact_id
+create index idx_user_roles_user on user_roles (user_id);
+create index idx_contact_duplicate_contact on contact_duplicate (contact_id);
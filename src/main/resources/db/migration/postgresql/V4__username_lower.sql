@@ -0,0 +1,3 @@
+-- UserService stores and looks up usernames lowercased; this keeps writes that bypass it from adding a
+-- username that differs only in case
+create unique index idx_users_username_lower on users (lower(username));
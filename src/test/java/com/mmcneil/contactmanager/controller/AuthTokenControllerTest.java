@@ -0,0 +1,105 @@
+package com.mmcneil.contactmanager.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import com.mmcneil.contactmanager.security.CustomUserDetailsService;
+import com.mmcneil.contactmanager.service.ContactNameKeyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthTokenControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockBean
+    private ContactRepository contactRepository;
+
+    // Name keys reference real contact rows, which don't exist while the contact repository is mocked
+    @MockBean
+    private ContactNameKeyService contactNameKeyService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setupUser() {
+        // Users are recreated with new ids below, bypassing UserService
+        userDetailsService.evictAll();
+        userRepository.deleteAll();
+        User user = new User();
+        user.setUsername("testuser");
+        user.setEmail("test@test.com");
+        user.setPassword(passwordEncoder.encode("testpassword"));
+        user.setRoles(Set.of("USER"));
+        userRepository.save(user);
+    }
+
+    private String obtainToken() throws Exception {
+        String body = mockMvc.perform(post("/api/auth/token")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token_type").value("Bearer"))
+                .andExpect(jsonPath("$.expires_in").value(900))
+                .andReturn().getResponse().getContentAsString();
+        return new ObjectMapper().readTree(body).get("access_token").asText();
+    }
+
+    @Test
+    @DisplayName("A token obtained with Basic credentials should authenticate API calls")
+    void tokenAuthenticatesApiCalls() throws Exception {
+        when(contactRepository.findViewsByUserId(anyLong()))
+            .thenReturn(List.of(new ContactView(1L, "Alice Example", "alice@example.com", "123-456-7890")));
+        String token = obtainToken();
+
+        mockMvc.perform(get("/api/contacts").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Alice Example"));
+    }
+
+    @Test
+    @DisplayName("Invalid, revoked or token-minted requests should be refused")
+    void invalidAndRevokedTokensAreRejected() throws Exception {
+        mockMvc.perform(get("/api/contacts").header("Authorization", "Bearer not-a-token"))
+                .andExpect(status().isUnauthorized());
+
+        String token = obtainToken();
+        mockMvc.perform(post("/api/auth/token").header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(delete("/api/auth/token").header("Authorization", "Bearer " + token))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/contacts").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+}
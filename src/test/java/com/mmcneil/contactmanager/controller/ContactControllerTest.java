@@ -1,9 +1,12 @@
 package com.mmcneil.contactmanager.controller;
 
 import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactView;
 import com.mmcneil.contactmanager.repository.ContactRepository;
 import com.mmcneil.contactmanager.repository.UserRepository;
 import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.service.ContactListCache;
+import com.mmcneil.contactmanager.service.ContactService;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,6 +15,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -24,6 +28,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ContactController.class)
+@Import({ContactService.class, ContactListCache.class})
 @WithMockUser(username = "testuser", roles = {"USER"})
 class ContactControllerTest {
     @Autowired
@@ -52,16 +57,16 @@ class ContactControllerTest {
     @DisplayName("GET /contacts should return contact list view with contacts in model")
     void showContactList() throws Exception {
         var contacts = List.of(
-            new Contact(1L, "Alice", "alice@example.com", "123-456-7890"),
-            new Contact(2L, "Bob", "bob@example.com", "555-555-5555")
+            new ContactView(1L, "Alice", "alice@example.com", "123-456-7890"),
+            new ContactView(2L, "Bob", "bob@example.com", "555-555-5555")
         );
-        contacts.forEach(c -> c.setUser(testUser));
-        Mockito.when(contactRepository.findByUser(testUser)).thenReturn(contacts);
+        Mockito.when(contactRepository.findViewsByUserId(testUser.getId())).thenReturn(contacts);
         
         mockMvc.perform(get("/contacts"))
             .andExpect(status().isOk())
             .andExpect(view().name("contact-list"))
-            .andExpect(model().attributeExists("contacts"));}
+            .andExpect(model().attributeExists("contacts"))
+            .andExpect(content().string(org.hamcrest.Matchers.containsString("bob@example.com")));}
 
     @Test
     @DisplayName("GET /contacts/new should return create form view with blank contact")
@@ -111,7 +116,7 @@ class ContactControllerTest {
     void showEditFormFound() throws Exception {
         Contact contact = new Contact(1L, "Alice", "alice@example.com", "123-456-7890");
         contact.setUser(testUser);
-        org.mockito.Mockito.when(contactRepository.findById(1L)).thenReturn(java.util.Optional.of(contact));
+        org.mockito.Mockito.when(contactRepository.findByIdAndUserId(1L, 1L)).thenReturn(java.util.Optional.of(contact));
 
         mockMvc.perform(get("/contacts/edit/1"))
                 .andExpect(status().isOk())
@@ -124,7 +129,7 @@ class ContactControllerTest {
     @Test
     @DisplayName("GET /contacts/edit/{id} should handle not found")
     void showEditFormNotFound() throws Exception {
-        org.mockito.Mockito.when(contactRepository.findById(99L)).thenReturn(java.util.Optional.empty());
+        org.mockito.Mockito.when(contactRepository.findByIdAndUserId(99L, 1L)).thenReturn(java.util.Optional.empty());
 
         mockMvc.perform(get("/contacts/edit/99"))
                 .andExpect(status().isOk())
@@ -137,7 +142,7 @@ class ContactControllerTest {
     void updateContactSuccess() throws Exception {
         Contact existing = new Contact(1L, "Alice", "alice@example.com", "123-456-7890");
         existing.setUser(testUser);
-        org.mockito.Mockito.when(contactRepository.findById(1L)).thenReturn(java.util.Optional.of(existing));
+        org.mockito.Mockito.when(contactRepository.findByIdAndUserId(1L, 1L)).thenReturn(java.util.Optional.of(existing));
         org.mockito.Mockito.when(contactRepository.save(org.mockito.ArgumentMatchers.any(Contact.class))).thenReturn(existing);
 
         mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/contacts/edit/1")
@@ -153,7 +158,7 @@ class ContactControllerTest {
     @DisplayName("POST /contacts/edit/{id} should show validation errors on failure")
     void updateContactValidationError() throws Exception {
         Contact existing = new Contact(1L, "Alice", "alice@example.com", "123-456-7890");
-        org.mockito.Mockito.when(contactRepository.findById(1L)).thenReturn(java.util.Optional.of(existing));
+        org.mockito.Mockito.when(contactRepository.findByIdAndUserId(1L, 1L)).thenReturn(java.util.Optional.of(existing));
 
         mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/contacts/edit/1")
                 .param("name", "") // Name is required
@@ -170,13 +175,23 @@ class ContactControllerTest {
     void deleteContact() throws Exception {
         Contact existing = new Contact(1L, "Alice", "alice@example.com", "123-456-7890");
         existing.setUser(testUser);
-        org.mockito.Mockito.when(contactRepository.findById(1L)).thenReturn(java.util.Optional.of(existing));
-        org.mockito.Mockito.when(contactRepository.findById(1L)).thenReturn(java.util.Optional.of(existing));
+        org.mockito.Mockito.when(contactRepository.deleteByIdAndUserId(1L, 1L)).thenReturn(1);
         mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/contacts/delete/1")
                 .with(csrf()))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl("/contacts"));
-        org.mockito.Mockito.verify(contactRepository).deleteById(1L);
+        org.mockito.Mockito.verify(contactRepository).deleteByIdAndUserId(1L, 1L);
+        org.mockito.Mockito.verify(contactRepository, org.mockito.Mockito.never()).findById(1L);
+    }
+
+    @Test
+    @DisplayName("POST /contacts/delete/{id} should show not found for a contact the user does not own")
+    void deleteContactNotOwned() throws Exception {
+        org.mockito.Mockito.when(contactRepository.deleteByIdAndUserId(2L, 1L)).thenReturn(0);
+        mockMvc.perform(org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post("/contacts/delete/2")
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(view().name("error/custom-error"));
     }
 }
 
@@ -2,24 +2,43 @@ package com.mmcneil.contactmanager.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactCursor;
+import com.mmcneil.contactmanager.model.ContactSyncToken;
+import com.mmcneil.contactmanager.model.ContactView;
 import com.mmcneil.contactmanager.repository.ContactRepository;
 
 import com.mmcneil.contactmanager.repository.UserRepository;
+import com.mmcneil.contactmanager.security.CustomUserDetailsService;
+import com.mmcneil.contactmanager.service.ContactChangedEvent;
+import com.mmcneil.contactmanager.service.ContactListCache;
+import com.mmcneil.contactmanager.service.ContactNameKeyService;
+import com.mmcneil.contactmanager.service.ContactRevisionEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
+import static com.mmcneil.contactmanager.controller.SqlStatementCount.sqlStatements;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
@@ -46,11 +65,29 @@ class ContactRestControllerTest {
     @MockBean
     private ContactRepository contactRepository;
 
+    // Name keys reference real contact rows, which don't exist while the contact repository is mocked
+    @MockBean
+    private ContactNameKeyService contactNameKeyService;
+
     @Autowired
     private PasswordEncoder passwordEncoder; // inject the real encoder
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ContactListCache contactListCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
     
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
     @BeforeEach
     void setupUser() {
+        // Users are recreated with new ids below, bypassing UserService
+        userDetailsService.evictAll();
         userRepository.deleteAll(); // Clean up between tests if needed
         User user = new User();
         user.setUsername("testuser");
@@ -75,7 +112,8 @@ class ContactRestControllerTest {
         contact2.setEmail("bob@example.com");
         contact2.setPhone("555-555-5555");
 
-        when(contactRepository.findByUser(any(User.class))).thenReturn(Arrays.asList(contact1, contact2));
+        when(contactRepository.findViewsByUserId(anyLong()))
+            .thenReturn(Arrays.asList(ContactView.of(contact1), ContactView.of(contact2)));
 
         mockMvc.perform(get("/api/contacts")
         .with(httpBasic("testuser", "testpassword"))
@@ -86,6 +124,152 @@ class ContactRestControllerTest {
     }
 
 
+    @Test
+    @DisplayName("GET /api/contacts?size= should return a page with a cursor for the next one")
+    void getContactPage() throws Exception {
+        ContactView contact1 = new ContactView(1L, "Alice Example", "alice@example.com", "123-456-7890");
+        ContactView contact2 = new ContactView(2L, "Bob Example", "bob@example.com", "555-555-5555");
+        ContactView contact3 = new ContactView(3L, "Carol Example", "carol@example.com", "111-222-3333");
+
+        when(contactRepository.findFirstPageByUserId(anyLong(), any(Limit.class)))
+            .thenReturn(Arrays.asList(contact1, contact2, contact3));
+        when(contactRepository.findPageByUserIdAfter(anyLong(), eq("Bob Example"), eq(2L), any(Limit.class)))
+            .thenReturn(Arrays.asList(contact3));
+
+        String nextCursor = new ContactCursor("Bob Example", 2L).encode();
+        mockMvc.perform(get("/api/contacts").param("size", "2")
+                .with(httpBasic("testuser", "testpassword"))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[1].name").value("Bob Example"))
+                .andExpect(jsonPath("$.nextCursor").value(nextCursor));
+
+        mockMvc.perform(get("/api/contacts").param("size", "2").param("cursor", nextCursor)
+                .with(httpBasic("testuser", "testpassword"))
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name").value("Carol Example"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts/suggest should match prefixes and reflect committed deletes")
+    void suggestContacts() throws Exception {
+        when(contactRepository.findViewsByUserId(anyLong())).thenReturn(Arrays.asList(
+            new ContactView(1L, "Alice Example", "alice@example.com", "123-456-7890"),
+            new ContactView(2L, "Bob Example", "bob@example.com", "555-555-5555")));
+        when(contactRepository.deleteByIdAndUserId(eq(1L), anyLong())).thenReturn(1);
+
+        mockMvc.perform(get("/api/contacts/suggest").param("q", "exam")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(delete("/api/contacts/1")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/contacts/suggest").param("q", "exam")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Bob Example"));
+        verify(contactRepository, times(1)).findViewsByUserId(anyLong());
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts/search should rank matching contacts and reject a blank query")
+    void searchContacts() throws Exception {
+        when(contactRepository.findViewsByUserIdContaining(anyLong(), eq("sales"))).thenReturn(Arrays.asList(
+            new ContactView(1L, "Acme Corp", "sales@acme.com", "123-456-7890"),
+            new ContactView(2L, "Sally Sales", "sally@example.com", "555-555-5555")));
+
+        mockMvc.perform(get("/api/contacts/search").param("q", "sales")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Sally Sales"))
+                .andExpect(jsonPath("$[1].name").value("Acme Corp"));
+
+        mockMvc.perform(get("/api/contacts/search").param("q", " ")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts/search?mode=fuzzy should use the phonetic name index")
+    void searchContactsFuzzy() throws Exception {
+        when(contactNameKeyService.search(anyLong(), eq("Jon Smyth"), eq(20)))
+            .thenReturn(List.of(new ContactView(1L, "John Smith", "john@example.com", "123-456-7890")));
+
+        mockMvc.perform(get("/api/contacts/search").param("q", "Jon Smyth").param("mode", "fuzzy")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("John Smith"));
+
+        mockMvc.perform(get("/api/contacts/search").param("q", "x").param("mode", "regex")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts/by-phone/{e164} should resolve a number through the phone index")
+    void getContactsByPhone() throws Exception {
+        when(contactRepository.findPhoneNumbersByUserId(anyLong()))
+            .thenReturn(List.<Object[]>of(new Object[] {1L, "+15551234567"}));
+        when(contactRepository.findViewsByUserIdAndIdIn(anyLong(), eq(List.of(1L))))
+            .thenReturn(List.of(new ContactView(1L, "Alice Example", "alice@example.com", "(555) 123-4567")));
+
+        mockMvc.perform(get("/api/contacts/by-phone/+15551234567")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Alice Example"));
+
+        mockMvc.perform(get("/api/contacts/by-phone/unknown")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts?size= should reject a malformed cursor or page size with 400")
+    void getContactPageBadRequest() throws Exception {
+        mockMvc.perform(get("/api/contacts").param("size", "2").param("cursor", "not-a-cursor")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/contacts").param("size", "0")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts/export should stream one JSON object per line")
+    void exportContactsAsNdjson() throws Exception {
+        ContactView contact1 = new ContactView(1L, "Alice Example", "alice@example.com", "123-456-7890");
+        ContactView contact2 = new ContactView(2L, "Bob Example", "bob@example.com", "555-555-5555");
+        when(contactRepository.streamByUserId(anyLong())).thenReturn(Stream.of(contact1, contact2));
+
+        String body = mockMvc.perform(get("/api/contacts/export").param("format", "ndjson")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(new ObjectMapper().readTree(lines[0]).get("name").asText()).isEqualTo("Alice Example");
+        assertThat(new ObjectMapper().readTree(lines[1]).get("email").asText()).isEqualTo("bob@example.com");
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts/export should reject unknown formats with 400")
+    void exportContactsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/contacts/export").param("format", "xml")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /api/contacts/{id} should return the contact as JSON")
     void getContactById() throws Exception {
@@ -97,20 +281,117 @@ class ContactRestControllerTest {
         User user = userRepository.findByUsername("testuser").get();
         contact.setUser(user);
     
-        when(contactRepository.findById(1L)).thenReturn(Optional.of(contact));
+        when(contactRepository.findVersionByIdAndUserId(1L, user.getId())).thenReturn(Optional.of(0L));
+        when(contactRepository.findByIdAndUserId(1L, user.getId())).thenReturn(Optional.of(contact));
     
         mockMvc.perform(get("/api/contacts/1")
         .with(httpBasic("testuser", "testpassword"))
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"c1-0\""))
                 .andExpect(jsonPath("$.name").value("Alice Example"))
                 .andExpect(jsonPath("$.email").value("alice@example.com"));
     }
+
+    @Test
+    @DisplayName("GET /api/contacts/{id} should return 304 from the version alone when the ETag matches")
+    void getContactByIdNotModified() throws Exception {
+        when(contactRepository.findVersionByIdAndUserId(eq(1L), anyLong())).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/api/contacts/1")
+                .header("If-None-Match", "\"c1-3\"")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"c1-3\""));
+        verify(contactRepository, times(0)).findByIdAndUserId(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts/{id} should run a fixed number of SQL statements, none once the user is cached")
+    void getContactByIdStatementCount() throws Exception {
+        when(contactRepository.findVersionByIdAndUserId(eq(1L), anyLong())).thenReturn(Optional.of(3L));
+
+        // Contact queries are mocked here, so this counts what authentication costs: the user with its roles
+        mockMvc.perform(get("/api/contacts/1")
+                .header("If-None-Match", "\"c1-3\"")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isNotModified())
+                .andExpect(sqlStatements(1));
+        mockMvc.perform(get("/api/contacts/1")
+                .header("If-None-Match", "\"c1-3\"")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isNotModified())
+                .andExpect(sqlStatements(0));
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts should return 304 until a write changes the address book")
+    void getAllContactsConditional() throws Exception {
+        when(contactRepository.findViewsByUserId(anyLong()))
+            .thenReturn(List.of(new ContactView(1L, "Alice Example", "alice@example.com", "123-456-7890")));
+
+        String etag = mockMvc.perform(get("/api/contacts")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", org.hamcrest.Matchers.containsString("no-cache")))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isNotNull();
+
+        mockMvc.perform(get("/api/contacts")
+                .header("If-None-Match", etag)
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(contactRepository, times(1)).findViewsByUserId(anyLong());
+
+        when(contactRepository.deleteByIdAndUserId(eq(1L), anyLong())).thenReturn(1);
+        mockMvc.perform(delete("/api/contacts/1")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/contacts")
+                .header("If-None-Match", etag)
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", org.hamcrest.Matchers.not(etag)));
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts should answer 304 without loading the list, and reload a list another instance changed")
+    void getAllContactsConditionalUsesDatabaseVersion() throws Exception {
+        List<ContactView> before = List.of(new ContactView(1L, "Alice Example", "alice@example.com", "123-456-7890"));
+        List<ContactView> after = List.of(new ContactView(1L, "Alicia Example", "alice@example.com", "123-456-7890"));
+        when(contactRepository.findViewsByUserId(anyLong())).thenReturn(before, before, after);
+        String etag = mockMvc.perform(get("/api/contacts")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        contactListCache.getCache().invalidateAll();
+        mockMvc.perform(get("/api/contacts")
+                .header("If-None-Match", etag)
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isNotModified());
+        verify(contactRepository, times(1)).findViewsByUserId(anyLong());
+
+        // Loaded again, then written on another instance: no event reaches this one
+        mockMvc.perform(get("/api/contacts")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Alice Example"));
+        jdbcTemplate.update("update users set contacts_version = contacts_version + 1 where username = 'testuser'");
+        mockMvc.perform(get("/api/contacts")
+                .header("If-None-Match", etag)
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", org.hamcrest.Matchers.not(etag)))
+                .andExpect(jsonPath("$[0].name").value("Alicia Example"));
+    }
     
     @Test
     @DisplayName("GET /api/contacts/{id} should return 404 if not found")
     void getContactByIdNotFound() throws Exception {
-        when(contactRepository.findById(99L)).thenReturn(Optional.empty());
+        when(contactRepository.findByIdAndUserId(eq(99L), anyLong())).thenReturn(Optional.empty());
     
         mockMvc.perform(get("/api/contacts/99")
         .with(httpBasic("testuser", "testpassword"))
@@ -141,6 +422,20 @@ class ContactRestControllerTest {
                 .andExpect(jsonPath("$.email").value("alice@example.com"));
     }
     
+    @Test
+    @DisplayName("POST /api/contacts should insert even when the body carries an existing id")
+    void createContactIgnoresId() throws Exception {
+        Contact contact = new Contact(42L, "Mallory Example", "mallory@example.com", "123-456-7890");
+        when(contactRepository.save(any(Contact.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(post("/api/contacts")
+        .with(httpBasic("testuser", "testpassword"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(asJsonString(contact)))
+                .andExpect(status().isCreated());
+        verify(contactRepository).save(argThat(saved -> saved.getId() == 0));
+    }
+
     private static String asJsonString(final Object obj) {
         try {
             return new ObjectMapper().writeValueAsString(obj);
@@ -149,6 +444,57 @@ class ContactRestControllerTest {
         }
     }
 
+    @Test
+    @DisplayName("POST /api/contacts/batch should apply operations and return a result per item")
+    void applyBatch() throws Exception {
+        when(contactRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Contact> contacts = invocation.getArgument(0);
+            for (int i = 0; i < contacts.size(); i++) {
+                contacts.get(i).setId(i + 1);
+            }
+            return contacts;
+        });
+
+        String body = """
+            {"operations": [
+              {"op": "create", "name": "Alice Example", "email": "alice@example.com", "phone": "123-456-7890"},
+              {"op": "delete", "id": 99}
+            ]}
+            """;
+        mockMvc.perform(post("/api/contacts/batch")
+                .with(httpBasic("testuser", "testpassword"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[1].status").value(404));
+    }
+
+    @Test
+    @DisplayName("POST /api/contacts/import should reject an unknown format with 400")
+    void importUnknownFormat() throws Exception {
+        mockMvc.perform(post("/api/contacts/import").param("format", "xlsx")
+                .with(httpBasic("testuser", "testpassword"))
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("name,email,phone\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/contacts/import should return 400 with the result when the file is unreadable from the start")
+    void importMalformedFile() throws Exception {
+        mockMvc.perform(post("/api/contacts/import")
+                .with(httpBasic("testuser", "testpassword"))
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("first,last\nAlice,Example\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.fatalError.line").value(1))
+                .andExpect(jsonPath("$.fatalError.message").value("CSV header must contain name, email and phone columns"));
+    }
+
     @Test
     @DisplayName("PUT /api/contacts/{id} should update and return the contact")
     void updateContact() throws Exception {
@@ -163,12 +509,7 @@ class ContactRestControllerTest {
         updated.setEmail("alice.updated@example.com");
         updated.setPhone("999-888-7777");
 
-        when(contactRepository.findById(1L)).thenReturn(Optional.of(existing));
-        when(contactRepository.save(any(Contact.class))).thenAnswer(invocation -> {
-            Contact c = invocation.getArgument(0);
-            c.setId(1L);
-            return c;
-        });
+        when(contactRepository.findByIdAndUserId(eq(1L), anyLong())).thenReturn(Optional.of(existing));
 
         mockMvc.perform(put("/api/contacts/1")
                 .with(httpBasic("testuser", "testpassword"))
@@ -187,7 +528,7 @@ class ContactRestControllerTest {
         updated.setEmail("ghost@example.com");
         updated.setPhone("000-000-0000");
 
-        when(contactRepository.findById(99L)).thenReturn(Optional.empty());
+        when(contactRepository.findByIdAndUserId(eq(99L), anyLong())).thenReturn(Optional.empty());
 
         mockMvc.perform(put("/api/contacts/99")
                 .with(httpBasic("testuser", "testpassword"))
@@ -199,10 +540,119 @@ class ContactRestControllerTest {
     @Test
     @DisplayName("DELETE /api/contacts/{id} should delete the contact")
     void deleteContact() throws Exception {
+        when(contactRepository.deleteByIdAndUserId(eq(1L), anyLong())).thenReturn(1);
+
         mockMvc.perform(delete("/api/contacts/1")
                 .with(httpBasic("testuser", "testpassword")))
                 .andExpect(status().isOk());
-        verify(contactRepository).deleteById(1L);
+        verify(contactRepository).deleteByIdAndUserId(eq(1L), anyLong());
+    }
+
+    @Test
+    @DisplayName("DELETE /api/contacts/{id} should return 404 if the contact is missing or not owned")
+    void deleteContactNotFound() throws Exception {
+        when(contactRepository.deleteByIdAndUserId(eq(99L), anyLong())).thenReturn(0);
+
+        mockMvc.perform(delete("/api/contacts/99")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts/events should stream committed changes and replay from Last-Event-ID")
+    void streamContactEvents() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/api/contacts/events")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        when(contactRepository.deleteByIdAndUserId(eq(1L), anyLong())).thenReturn(1);
+        mockMvc.perform(delete("/api/contacts/1")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isOk());
+        assertThat(awaitContent(stream, "data:{\"id\":1}")).contains("event:deleted");
+
+        when(contactRepository.findChangesByUserIdAfter(anyLong(), eq(4L), eq(2L), any(Limit.class)))
+            .thenReturn(List.<Object[]>of(new Object[] {3L, "Carol Example", "carol@example.com", "111-222-3333", false, 5L}));
+        MvcResult resumed = mockMvc.perform(get("/api/contacts/events")
+                .header("Last-Event-ID", new ContactSyncToken(4L, 2L).encode())
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(awaitContent(resumed, "\"name\":\"Carol Example\""))
+            .contains("event:updated")
+            .contains("id:" + ContactSyncToken.endOf(5L).encode());
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts/events should send a revision's changes in id order so a reconnect misses none")
+    void streamContactEventsResumesWithinRevision() throws Exception {
+        Long userId = userRepository.findByUsername("testuser").get().getId();
+        MvcResult stream = mockMvc.perform(get("/api/contacts/events")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // One revision that touched contact 9 before it deleted contact 3, as a merge does
+        eventPublisher.publishEvent(new ContactRevisionEvent(userId, 7L, List.of(
+            ContactChangedEvent.updated(userId, new Contact(9L, "Ivy Example", "ivy@example.com", "555-0009")),
+            ContactChangedEvent.deleted(userId, 3L))));
+        String content = awaitContent(stream, "\"name\":\"Ivy Example\"");
+        String deletedId = "id:" + new ContactSyncToken(7L, 3L).encode();
+        String updatedId = "id:" + ContactSyncToken.endOf(7L).encode();
+        assertThat(content).contains(deletedId, updatedId);
+        assertThat(content.indexOf(deletedId)).isLessThan(content.indexOf(updatedId));
+
+        // Dropped right after the delete: resuming from it still brings contact 9
+        when(contactRepository.findChangesByUserIdAfter(anyLong(), eq(7L), eq(3L), any(Limit.class)))
+            .thenReturn(List.<Object[]>of(new Object[] {9L, "Ivy Example", "ivy@example.com", "555-0009", false, 7L}));
+        MvcResult resumed = mockMvc.perform(get("/api/contacts/events")
+                .header("Last-Event-ID", new ContactSyncToken(7L, 3L).encode())
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(awaitContent(resumed, "\"name\":\"Ivy Example\""))
+            .contains("event:updated")
+            .contains(updatedId);
+    }
+
+    // Events are written by the sender pool, so give it a moment
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            String content = result.getResponse().getContentAsString();
+            if (content.contains(expected)) {
+                return content;
+            }
+            Thread.sleep(100);
+        }
+        return result.getResponse().getContentAsString();
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts/changes should reject a malformed token or limit with 400")
+    void getChangesBadRequest() throws Exception {
+        mockMvc.perform(get("/api/contacts/changes").param("since", "not a token")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/contacts/changes").param("limit", "0")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /api/contacts/merge should return 404 for contacts the user does not own and 400 for bad input")
+    void mergeContactsRejected() throws Exception {
+        mockMvc.perform(post("/api/contacts/merge")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"targetId\":1,\"sourceIds\":[2]}")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(post("/api/contacts/merge")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"targetId\":1,\"sourceIds\":[]}")
+                .with(httpBasic("testuser", "testpassword")))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -241,8 +691,8 @@ class ContactRestControllerTest {
         contact2.setUser(dbUser2);
 
         // Only mock the contact repository, using argument matchers for robust matching
-        when(contactRepository.findByUser(argThat(u -> u != null && u.getUsername().equals("user1")))).thenReturn(Arrays.asList(contact1));
-        when(contactRepository.findByUser(argThat(u -> u != null && u.getUsername().equals("user2")))).thenReturn(Arrays.asList(contact2));
+        when(contactRepository.findViewsByUserId(dbUser1.getId())).thenReturn(Arrays.asList(ContactView.of(contact1)));
+        when(contactRepository.findViewsByUserId(dbUser2.getId())).thenReturn(Arrays.asList(ContactView.of(contact2)));
 
         // Act: user1 requests their contacts
         mockMvc.perform(get("/api/contacts")
@@ -292,8 +742,8 @@ class ContactRestControllerTest {
         contact2.setPhone("222-222-2222");
         contact2.setUser(dbUser2);
 
-        // Only mock the contact repository for findById
-        when(contactRepository.findById(42L)).thenReturn(Optional.of(contact2));
+        // The contact is only visible when scoped to its owner
+        when(contactRepository.findByIdAndUserId(42L, dbUser2.getId())).thenReturn(Optional.of(contact2));
 
         // Act: user1 tries to access user2's contact by ID
         mockMvc.perform(get("/api/contacts/42")
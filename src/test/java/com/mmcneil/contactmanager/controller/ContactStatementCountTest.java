@@ -0,0 +1,157 @@
+package com.mmcneil.contactmanager.controller;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import com.mmcneil.contactmanager.security.AuthenticatedUser;
+import com.mmcneil.contactmanager.security.CustomUserDetailsService;
+import com.mmcneil.contactmanager.service.ContactListCache;
+import com.mmcneil.contactmanager.service.ContactService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.mmcneil.contactmanager.controller.SqlStatementCount.sqlStatements;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Against real repositories on H2, so these are the queries each endpoint actually runs. The user is
+// authenticated once first, so the counts below are the endpoints' own
+@SpringBootTest
+@AutoConfigureMockMvc
+class ContactStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ContactService contactService;
+
+    @Autowired
+    private ContactListCache contactListCache;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private Contact alice;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // The user is recreated with a new id for each test, bypassing UserService
+        userDetailsService.evictAll();
+        owner = new User();
+        owner.setUsername("counter");
+        owner.setEmail("counter@example.com");
+        owner.setPassword(passwordEncoder.encode("counterpass"));
+        owner.setRoles(Set.of("USER"));
+        userRepository.save(owner);
+        alice = contactService.create(owner.getId(), new Contact("Alice Example", "alice@example.com", "555-0100"));
+        contactService.create(owner.getId(), new Contact("Bob Example", "bob@example.com", "555-0101"));
+        contactService.create(owner.getId(), new Contact("Carol Example", "carol@example.com", "555-0102"));
+
+        mockMvc.perform(get("/api/contacts/" + alice.getId()).with(httpBasic("counter", "counterpass")))
+            .andExpect(status().isOk());
+    }
+
+    @AfterEach
+    void tearDown() {
+        contactListCache.getCache().invalidateAll();
+        userDetailsService.evictAll();
+        // Tombstones are invisible to the repository, so clean up in SQL
+        jdbcTemplate.update("delete from contact where user_id = ?", owner.getId());
+        jdbcTemplate.update("delete from user_roles where user_id = ?", owner.getId());
+        jdbcTemplate.update("delete from users where id = ?", owner.getId());
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts should load the list in one query when cold and only check the version when cached")
+    void getAllContacts() throws Exception {
+        // Version for the ETag, then the version and the rows for the cached list
+        mockMvc.perform(get("/api/contacts").with(httpBasic("counter", "counterpass")))
+            .andExpect(status().isOk())
+            .andExpect(sqlStatements(3));
+        mockMvc.perform(get("/api/contacts").with(httpBasic("counter", "counterpass")))
+            .andExpect(status().isOk())
+            .andExpect(sqlStatements(1));
+    }
+
+    @Test
+    @DisplayName("GET /api/contacts/{id} should look up the version, then the contact")
+    void getContactById() throws Exception {
+        mockMvc.perform(get("/api/contacts/" + alice.getId()).with(httpBasic("counter", "counterpass")))
+            .andExpect(status().isOk())
+            .andExpect(sqlStatements(2));
+    }
+
+    @Test
+    @DisplayName("POST /api/contacts should insert the contact and its name keys, then stamp the revision")
+    void createContact() throws Exception {
+        // Insert, batched name key inserts, and the version bump, its read back and the revision stamp
+        mockMvc.perform(post("/api/contacts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Dan Example\",\"email\":\"dan@example.com\",\"phone\":\"555-0103\"}")
+                .with(httpBasic("counter", "counterpass")))
+            .andExpect(status().isCreated())
+            .andExpect(sqlStatements(5));
+    }
+
+    @Test
+    @DisplayName("PUT /api/contacts/{id} should load and update the contact, replace its name keys and stamp the revision")
+    void updateContact() throws Exception {
+        mockMvc.perform(put("/api/contacts/" + alice.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Alicia Example\",\"email\":\"alice@example.com\",\"phone\":\"555-0100\"}")
+                .with(httpBasic("counter", "counterpass")))
+            .andExpect(status().isOk())
+            .andExpect(sqlStatements(7));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/contacts/{id} should tombstone the contact, drop its name keys and stamp the revision")
+    void deleteContact() throws Exception {
+        mockMvc.perform(delete("/api/contacts/" + alice.getId()).with(httpBasic("counter", "counterpass")))
+            .andExpect(status().isOk())
+            .andExpect(sqlStatements(5));
+    }
+
+    @Test
+    @DisplayName("GET /contacts should render from the cached list after checking its version")
+    void showContactList() throws Exception {
+        // Form login sessions carry the user, so nothing is spent on authentication here
+        AuthenticatedUser principal = new AuthenticatedUser(owner.getId(), "counter", "",
+            List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        mockMvc.perform(get("/contacts").with(user(principal)))
+            .andExpect(status().isOk())
+            .andExpect(sqlStatements(3));
+        mockMvc.perform(get("/contacts").with(user(principal)))
+            .andExpect(status().isOk())
+            .andExpect(sqlStatements(1));
+    }
+}
@@ -2,6 +2,7 @@ package com.mmcneil.contactmanager.controller;
 
 import com.mmcneil.contactmanager.exception.EmailAlreadyExistsException;
 import com.mmcneil.contactmanager.exception.UsernameAlreadyExistsException;
+import com.mmcneil.contactmanager.security.AccessTokenService;
 import com.mmcneil.contactmanager.security.SecurityConfig;
 import com.mmcneil.contactmanager.service.UserService;
 import org.junit.jupiter.api.Test;
@@ -19,7 +20,7 @@ import static org.mockito.ArgumentMatchers.any;
 
 
 @WebMvcTest(RegistrationController.class)
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, AccessTokenService.class})
 class RegistrationControllerTest {
 
     @Autowired
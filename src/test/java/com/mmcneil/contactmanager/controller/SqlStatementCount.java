@@ -0,0 +1,20 @@
+package com.mmcneil.contactmanager.controller;
+
+import com.mmcneil.contactmanager.SqlStatementCountFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+
+/**
+ * Asserts how many SQL statements a request ran, from the header {@link SqlStatementCountFilter} adds. Pin
+ * the count for an endpoint so an extra query per row or a new lazy load fails the test instead of shipping.
+ */
+final class SqlStatementCount {
+
+    private SqlStatementCount() {
+    }
+
+    static ResultMatcher sqlStatements(int expected) {
+        return header().string(SqlStatementCountFilter.HEADER, String.valueOf(expected));
+    }
+}
@@ -0,0 +1,55 @@
+package com.mmcneil.contactmanager.importer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvContactReaderTest {
+
+    @Test
+    @DisplayName("Should map columns by header name and handle quoted fields")
+    void readsQuotedFields() throws IOException {
+        String csv = "Phone,Name,Email,Company\r\n"
+            + "123-456-7890,\"Example, Alice\",alice@example.com,Acme\r\n"
+            + "\"555 \"\"home\"\"\",\"Bob\nExample\",bob@example.com,\r\n"
+            + "\r\n"
+            + "111-222-3333,Carol,carol@example.com\n";
+
+        try (CsvContactReader reader = new CsvContactReader(new StringReader(csv))) {
+            ContactRecord alice = reader.next();
+            assertThat(alice).isEqualTo(new ContactRecord(2, "Example, Alice", "alice@example.com", "123-456-7890"));
+
+            ContactRecord bob = reader.next();
+            assertThat(bob).isEqualTo(new ContactRecord(3, "Bob\nExample", "bob@example.com", "555 \"home\""));
+
+            ContactRecord carol = reader.next();
+            assertThat(carol.line()).isEqualTo(6);
+            assertThat(carol.name()).isEqualTo("Carol");
+
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave missing trailing columns null")
+    void shortRow() throws IOException {
+        try (CsvContactReader reader = new CsvContactReader(new StringReader("name,email,phone\nAlice"))) {
+            assertThat(reader.next()).isEqualTo(new ContactRecord(2, "Alice", null, null));
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a header without the required columns")
+    void rejectsBadHeader() {
+        CsvContactReader reader = new CsvContactReader(new StringReader("name,email\nAlice,alice@example.com\n"));
+        assertThatThrownBy(reader::next)
+            .isInstanceOf(ContactImportException.class)
+            .hasMessageContaining("phone");
+    }
+}
@@ -0,0 +1,47 @@
+package com.mmcneil.contactmanager.importer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VCardContactReaderTest {
+
+    @Test
+    @DisplayName("Should read FN, first EMAIL and first TEL from each card")
+    void readsCards() throws IOException {
+        String vcf = """
+            BEGIN:VCARD
+            VERSION:3.0
+            FN:Alice Example
+            EMAIL;TYPE=work:alice@example.com
+            EMAIL;TYPE=home:alice@home.example.com
+            item1.TEL;TYPE=cell:123-456-7890
+            END:VCARD
+            BEGIN:VCARD
+            VERSION:4.0
+            N:Example;Bob;;;
+            EMAIL:bob@exa
+             mple.com
+            TEL;VALUE=uri:tel:555-555-5555
+            END:VCARD
+            """;
+
+        try (VCardContactReader reader = new VCardContactReader(new StringReader(vcf))) {
+            assertThat(reader.next()).isEqualTo(new ContactRecord(1, "Alice Example", "alice@example.com", "123-456-7890"));
+            assertThat(reader.next()).isEqualTo(new ContactRecord(8, "Bob Example", "bob@example.com", "555-555-5555"));
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a card without END:VCARD")
+    void rejectsTruncatedCard() {
+        VCardContactReader reader = new VCardContactReader(new StringReader("BEGIN:VCARD\nFN:Alice\n"));
+        assertThatThrownBy(reader::next).isInstanceOf(ContactImportException.class);
+    }
+}
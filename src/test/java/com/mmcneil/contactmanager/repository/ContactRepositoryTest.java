@@ -1,13 +1,18 @@
 package com.mmcneil.contactmanager.repository;
 
 import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.model.User;
 
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -16,6 +21,9 @@ public class ContactRepositoryTest {
     @Autowired
     private ContactRepository contactRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Test
     @DisplayName("Should save and retrieve a contact")
     void testSaveAndFindContact() {
@@ -119,4 +127,112 @@ public class ContactRepositoryTest {
         Optional<Contact> found = contactRepository.findById(1L);
         assertThat(found).isNotPresent();
     }
+
+    @Test
+    @DisplayName("Should page through a user's contacts by (name, id) using a keyset cursor")
+    void keysetPagination() {
+        User owner = new User();
+        owner.setUsername("pager");
+        owner.setEmail("pager@example.com");
+        owner.setPassword("pass");
+        owner.setRoles(Set.of("user"));
+        userRepository.save(owner);
+
+        // Two contacts share a name so the id tiebreaker is exercised
+        for (String name : List.of("Dave", "Alice", "Carol", "Bob", "Carol")) {
+            Contact contact = new Contact(name, name.toLowerCase() + "@example.com", "111-111-1111");
+            contact.setUser(owner);
+            contactRepository.save(contact);
+        }
+
+        List<ContactView> first = contactRepository.findFirstPageByUserId(owner.getId(), Limit.of(2));
+        assertThat(first).extracting(ContactView::name).containsExactly("Alice", "Bob");
+
+        ContactView last = first.get(1);
+        List<ContactView> second = contactRepository.findPageByUserIdAfter(owner.getId(), last.name(), last.id(), Limit.of(2));
+        assertThat(second).extracting(ContactView::name).containsExactly("Carol", "Carol");
+        assertThat(second.get(0).id()).isLessThan(second.get(1).id());
+
+        last = second.get(1);
+        List<ContactView> third = contactRepository.findPageByUserIdAfter(owner.getId(), last.name(), last.id(), Limit.of(2));
+        assertThat(third).extracting(ContactView::name).containsExactly("Dave");
+    }
+
+    @Test
+    @DisplayName("Should stream a user's contacts in id order")
+    void streamByUser() {
+        User owner = new User();
+        owner.setUsername("exporter");
+        owner.setEmail("exporter@example.com");
+        owner.setPassword("pass");
+        owner.setRoles(Set.of("user"));
+        userRepository.save(owner);
+
+        for (String name : List.of("Alice", "Bob", "Carol")) {
+            Contact contact = new Contact(name, name.toLowerCase() + "@example.com", "111-111-1111");
+            contact.setUser(owner);
+            contactRepository.save(contact);
+        }
+
+        try (Stream<ContactView> contacts = contactRepository.streamByUserId(owner.getId())) {
+            assertThat(contacts.map(ContactView::name)).containsExactly("Alice", "Bob", "Carol");
+        }
+    }
+
+    @Test
+    @DisplayName("Should project only the owner's contacts into views")
+    void findViewsByUser() {
+        User owner = new User();
+        owner.setUsername("viewer");
+        owner.setEmail("viewer@example.com");
+        owner.setPassword("pass");
+        owner.setRoles(Set.of("user"));
+        userRepository.save(owner);
+
+        User other = new User();
+        other.setUsername("other");
+        other.setEmail("other@example.com");
+        other.setPassword("pass");
+        other.setRoles(Set.of("user"));
+        userRepository.save(other);
+
+        Contact mine = new Contact("Alice", "alice@example.com", "111-111-1111");
+        mine.setUser(owner);
+        contactRepository.save(mine);
+        Contact theirs = new Contact("Bob", "bob@example.com", "222-222-2222");
+        theirs.setUser(other);
+        contactRepository.save(theirs);
+
+        assertThat(contactRepository.findViewsByUserId(owner.getId()))
+            .containsExactly(new ContactView(mine.getId(), "Alice", "alice@example.com", "111-111-1111"));
+    }
+
+    @Test
+    @DisplayName("Should only find or delete a contact when scoped to its owner")
+    void ownerScopedLookupAndDelete() {
+        User owner = new User();
+        owner.setUsername("owner");
+        owner.setEmail("owner@example.com");
+        owner.setPassword("pass");
+        owner.setRoles(Set.of("user"));
+        userRepository.save(owner);
+
+        User intruder = new User();
+        intruder.setUsername("intruder");
+        intruder.setEmail("intruder@example.com");
+        intruder.setPassword("pass");
+        intruder.setRoles(Set.of("user"));
+        userRepository.save(intruder);
+
+        Contact contact = new Contact("Alice", "alice@example.com", "111-111-1111");
+        contact.setUser(owner);
+        contactRepository.save(contact);
+
+        assertThat(contactRepository.findByIdAndUserId(contact.getId(), owner.getId())).isPresent();
+        assertThat(contactRepository.findByIdAndUserId(contact.getId(), intruder.getId())).isNotPresent();
+
+        assertThat(contactRepository.deleteByIdAndUserId(contact.getId(), intruder.getId())).isZero();
+        assertThat(contactRepository.deleteByIdAndUserId(contact.getId(), owner.getId())).isEqualTo(1);
+        assertThat(contactRepository.findById(contact.getId())).isNotPresent();
+    }
 }
@@ -0,0 +1,55 @@
+package com.mmcneil.contactmanager.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the PostgreSQL migrations against a real server and checks the planner can use each index. Test tables
+// are tiny, so sequential scans are switched off for the transaction; otherwise they would always win
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresQueryPlanTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void disableSequentialScans() {
+        jdbcTemplate.execute("set local enable_seqscan = off");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @DisplayName("Main queries should use their indexes on PostgreSQL")
+    @CsvSource(delimiter = '|', value = {
+        "contact list page  | select id, name, email, phone from contact where user_id = 1 and deleted = false and (name, id) > ('a', 0) order by name, id | idx_contact_user_name_id",
+        "delta sync changes | select id from contact where user_id = 1 and revision >= 5 order by revision, id                                          | idx_contact_user_revision",
+        "phone lookup       | select id from contact where user_id = 1 and phone_e164 = '+15551234567'                                             | idx_contact_user_phone_e164",
+        "name key lookup    | select contact_id from contact_name_key where user_id = 1 and name_key in ('ALS', 'ALK')                            | idx_contact_name_key_lookup",
+        "login              | select id, password from users where username = 'alice'                                                             | uk_users_username",
+        "username any case  | select id from users where lower(username) = 'alice'                                                                | idx_users_username_lower",
+        "user roles         | select role from user_roles where user_id = 1                                                                       | idx_user_roles_user",
+        "search             | select id from contact where user_id = 1 and search_vector @@ to_tsquery('simple', 'ali:*')                          | idx_contact_search_vector",
+        "tombstone purge    | select id from contact where deleted and updated_at < now() - interval '30 days'                                   | idx_contact_tombstone_updated_at",
+    })
+    void mainQueriesUseIndexes(String query, String sql, String index) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+
+        assertThat(plan).contains(index).doesNotContain("Seq Scan");
+    }
+}
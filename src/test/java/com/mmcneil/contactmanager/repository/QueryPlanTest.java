@@ -0,0 +1,33 @@
+package com.mmcneil.contactmanager.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The hot queries against the migrated schema must be answered from the intended index, not a table scan
+@DataJpaTest
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest(name = "{0}")
+    @DisplayName("Main queries should use their indexes on H2")
+    @CsvSource(delimiter = '|', value = {
+        "contact list page  | select id, name, email, phone from contact where user_id = 1 and deleted = false and (name, id) > ('a', 0) order by name, id | IDX_CONTACT_USER_NAME_ID",
+        "delta sync changes | select id from contact where user_id = 1 and revision >= 5 order by revision, id                                          | IDX_CONTACT_USER_REVISION",
+        "phone lookup       | select id from contact where user_id = 1 and phone_e164 = '+15551234567'                                             | IDX_CONTACT_USER_PHONE_E164",
+        "name key lookup    | select contact_id from contact_name_key where user_id = 1 and name_key in ('ALS', 'ALK')                            | IDX_CONTACT_NAME_KEY_LOOKUP",
+        "login              | select id, password from users where username = 'alice'                                                             | UK_USERS_USERNAME",
+    })
+    void mainQueriesUseIndexes(String query, String sql, String index) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+
+        assertThat(plan).contains(index).doesNotContain("tableScan");
+    }
+}
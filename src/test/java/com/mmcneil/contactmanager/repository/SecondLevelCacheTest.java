@@ -0,0 +1,109 @@
+package com.mmcneil.contactmanager.repository;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Each repository call runs in its own transaction, as it would in the app, so entries are cached on commit
+@DataJpaTest
+@ActiveProfiles("l2cache")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("cached");
+        owner.setEmail("cached@example.com");
+        owner.setPassword("pass");
+        owner.setRoles(Set.of("user"));
+        userRepository.save(owner);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from contact");
+        jdbcTemplate.update("delete from user_roles");
+        jdbcTemplate.update("delete from users");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated contact and user lookups from the second-level cache")
+    void cachesEntities() {
+        Contact contact = new Contact("Alice", "alice@example.com", "555-0001");
+        contact.setUser(owner);
+        contactRepository.save(contact);
+
+        // Cached on insert
+        contactRepository.findById(contact.getId());
+        contactRepository.findById(contact.getId());
+        // Cached on first load; roles are lazy, so they are read inside a transaction
+        loadUserWithRoles();
+        loadUserWithRoles();
+
+        assertThat(statistics.getDomainDataRegionStatistics("contact").getHitCount()).isEqualTo(2);
+        assertThat(statistics.getDomainDataRegionStatistics("user").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("user.roles").getHitCount()).isEqualTo(1);
+    }
+
+    private void loadUserWithRoles() {
+        transactionTemplate.executeWithoutResult(status ->
+            userRepository.findById(owner.getId()).orElseThrow().getRoles().size());
+    }
+
+    @Test
+    @DisplayName("Should cache query results until the table they read is written")
+    void cachesQueriesUntilWrite() {
+        userRepository.findByUsername("cached");
+        userRepository.findByUsername("cached");
+        assertThat(statistics.getQueryRegionStatistics("query.user").getHitCount()).isEqualTo(1);
+
+        contactRepository.findViewsByUserId(owner.getId());
+        contactRepository.findViewsByUserId(owner.getId());
+        assertThat(statistics.getQueryRegionStatistics("query.contact").getHitCount()).isEqualTo(1);
+
+        Contact contact = new Contact("Bob", "bob@example.com", "555-0002");
+        contact.setUser(owner);
+        contactRepository.save(contact);
+        assertThat(contactRepository.findViewsByUserId(owner.getId())).hasSize(1);
+        assertThat(statistics.getQueryRegionStatistics("query.contact").getHitCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,124 @@
+package com.mmcneil.contactmanager.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessTokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    private final AccessTokenService tokenService = new AccessTokenService(SECRET, Duration.ofMinutes(15), clock);
+    private final AuthenticatedUser alice = new AuthenticatedUser(
+        42L, "alice|with|pipes", "secret", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    @Test
+    @DisplayName("Should round-trip the user id, username and authorities")
+    void issueAndVerify() {
+        String token = tokenService.issue(alice).token();
+
+        AuthenticatedUser user = tokenService.verify(token).orElseThrow().user();
+
+        assertThat(user.getId()).isEqualTo(42L);
+        assertThat(user.getUsername()).isEqualTo("alice|with|pipes");
+        assertThat(user.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+    }
+
+    @Test
+    @DisplayName("Should reject tampered, foreign and malformed tokens")
+    void rejectsTamperedTokens() {
+        String token = tokenService.issue(alice).token();
+        String otherKey = Base64.getEncoder().encodeToString(new byte[] {
+            1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23, 24, 25, 26, 27, 28, 29, 30, 31, 32});
+        String payload = token.substring(0, token.indexOf('.'));
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+            new String(Base64.getUrlDecoder().decode(payload)).replace("|42|", "|43|").getBytes());
+
+        assertThat(tokenService.verify(forgedPayload + token.substring(token.indexOf('.')))).isEmpty();
+        assertThat(new AccessTokenService(otherKey, Duration.ofMinutes(15), clock).verify(token)).isEmpty();
+        assertThat(tokenService.verify("garbage")).isEmpty();
+        assertThat(tokenService.verify("a.b")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject expired and revoked tokens")
+    void rejectsExpiredAndRevokedTokens() {
+        String expiring = tokenService.issue(alice).token();
+        clock.advance(Duration.ofMinutes(15));
+        assertThat(tokenService.verify(expiring)).isEmpty();
+
+        String revoked = tokenService.issue(alice).token();
+        tokenService.revoke(tokenService.verify(revoked).orElseThrow());
+        assertThat(tokenService.verify(revoked)).isEmpty();
+
+        String beforeRevokeAll = tokenService.issue(alice).token();
+        tokenService.revokeAll(42L);
+        clock.advance(Duration.ofSeconds(1));
+        String afterRevokeAll = tokenService.issue(alice).token();
+        assertThat(tokenService.verify(beforeRevokeAll)).isEmpty();
+        assertThat(tokenService.verify(afterRevokeAll)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should accept a token issued in the same second as, but after, revoking all of the user's tokens")
+    void acceptsTokenIssuedRightAfterRevokeAll() {
+        clock.advance(Duration.ofMillis(100));
+        String beforeRevokeAll = tokenService.issue(alice).token();
+        clock.advance(Duration.ofMillis(200));
+        tokenService.revokeAll(42L);
+        clock.advance(Duration.ofMillis(200));
+        String afterRevokeAll = tokenService.issue(alice).token();
+
+        assertThat(tokenService.verify(beforeRevokeAll)).isEmpty();
+        assertThat(tokenService.verify(afterRevokeAll)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should forget revocations once every token they cover has expired")
+    void prunesExpiredRevocations() {
+        tokenService.revoke(tokenService.verify(tokenService.issue(alice).token()).orElseThrow());
+        tokenService.revokeAll(42L);
+        assertThat(tokenService.revocationCount()).isEqualTo(2);
+
+        clock.advance(Duration.ofMinutes(15));
+        tokenService.revokeAll(7L);
+        assertThat(tokenService.revocationCount()).isEqualTo(1);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.mmcneil.contactmanager.security;
+
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class CurrentUserArgumentResolverTest {
+
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<UserRepository> provider = Mockito.mock(ObjectProvider.class);
+    private final CurrentUserArgumentResolver resolver = new CurrentUserArgumentResolver(provider);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should return the AuthenticatedUser principal without querying")
+    void usesPrincipalDirectly() {
+        AuthenticatedUser principal = new AuthenticatedUser(5L, "alice", "", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        SecurityContextHolder.getContext().setAuthentication(
+            UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+        Mockito.when(provider.getObject()).thenReturn(userRepository);
+
+        AuthenticatedUser resolved = resolver.resolveArgument(null, null, null, null);
+
+        assertThat(resolved).isSameAs(principal);
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    @DisplayName("Should fall back to a username lookup for other principals")
+    void fallsBackToLookup() {
+        User user = new User();
+        user.setId(9L);
+        user.setUsername("bob");
+        Mockito.when(provider.getObject()).thenReturn(userRepository);
+        Mockito.when(userRepository.findByUsername("bob")).thenReturn(Optional.of(user));
+        SecurityContextHolder.getContext().setAuthentication(
+            UsernamePasswordAuthenticationToken.authenticated("bob", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        AuthenticatedUser resolved = resolver.resolveArgument(null, null, null, null);
+
+        assertThat(resolved.getId()).isEqualTo(9L);
+        assertThat(resolved.getUsername()).isEqualTo("bob");
+    }
+}
@@ -5,6 +5,7 @@ import com.mmcneil.contactmanager.repository.UserRepository;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
@@ -23,15 +24,18 @@ class CustomUserDetailsServiceTest {
     @DisplayName("Should load user by username and map roles")
     void shouldLoadUserByUsername() {
         User user = new User();
+        user.setId(7L);
         user.setUsername("alice");
         user.setPassword("password");
         user.setRoles(Set.of("user"));
 
-        Mockito.when(userRepository.findByUsername("alice"))
+        Mockito.when(userRepository.findWithRolesByUsername("alice"))
                 .thenReturn(Optional.of(user));
 
         UserDetails userDetails = userDetailsService.loadUserByUsername("alice");
 
+        assertThat(userDetails).isInstanceOf(AuthenticatedUser.class);
+        assertThat(((AuthenticatedUser) userDetails).getId()).isEqualTo(7L);
         assertThat(userDetails.getUsername()).isEqualTo("alice");
         assertThat(userDetails.getPassword()).isEqualTo("password");
         assertThat(userDetails.getAuthorities()).extracting("authority")
@@ -41,11 +45,62 @@ class CustomUserDetailsServiceTest {
     @Test
     @DisplayName("Should throw UsernameNotFoundException if user not found")
     void shouldThrowIfUserNotFound() {
-        Mockito.when(userRepository.findByUsername("bob"))
+        Mockito.when(userRepository.findWithRolesByUsername("bob"))
                 .thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> userDetailsService.loadUserByUsername("bob"))
                 .isInstanceOf(UsernameNotFoundException.class)
                 .hasMessageContaining("bob");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should serve repeat lookups from the cache until evicted")
+    void shouldCacheUntilEvicted() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("alice");
+        user.setPassword("password");
+        user.setRoles(Set.of("USER"));
+        Mockito.when(userRepository.findWithRolesByUsername("alice"))
+                .thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername("alice");
+        userDetailsService.loadUserByUsername("Alice");
+        Mockito.verify(userRepository, Mockito.times(1)).findWithRolesByUsername("alice");
+        assertThat(userDetailsService.getCacheStats().hitCount()).isEqualTo(1);
+
+        userDetailsService.evict("alice");
+        userDetailsService.loadUserByUsername("alice");
+        Mockito.verify(userRepository, Mockito.times(2)).findWithRolesByUsername("alice");
+    }
+
+    @Test
+    @DisplayName("Erasing credentials on a returned user should not affect the cached entry")
+    void shouldReturnFreshInstances() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("alice");
+        user.setPassword("password");
+        user.setRoles(Set.of("USER"));
+        Mockito.when(userRepository.findWithRolesByUsername("alice"))
+                .thenReturn(Optional.of(user));
+
+        ((CredentialsContainer) userDetailsService.loadUserByUsername("alice")).eraseCredentials();
+
+        assertThat(userDetailsService.loadUserByUsername("alice").getPassword()).isEqualTo("password");
+    }
+
+    @Test
+    @DisplayName("Should not cache unknown usernames")
+    void shouldNotCacheMisses() {
+        Mockito.when(userRepository.findWithRolesByUsername("bob"))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("bob"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("bob"))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        Mockito.verify(userRepository, Mockito.times(2)).findWithRolesByUsername("bob");
+    }
+}
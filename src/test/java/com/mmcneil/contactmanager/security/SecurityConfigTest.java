@@ -6,6 +6,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -18,10 +19,13 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 class SecurityConfigTest {
 
     @Autowired
@@ -92,4 +96,37 @@ class SecurityConfigTest {
                 .header("Authorization", "Basic " + java.util.Base64.getEncoder().encodeToString("baduser:badpass".getBytes())))
                 .andExpect(status().isUnauthorized());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("GET /actuator/health should be public")
+    void healthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /actuator/prometheus with no credentials returns 401")
+    void prometheusNoCredentialsReturns401() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("GET /actuator/prometheus as a regular user returns 403")
+    @WithMockUser(username = "user1", roles = {"USER"})
+    void prometheusAsUserReturns403() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("GET /actuator/prometheus as an admin returns the scrape")
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void prometheusAsAdminSucceeds() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("contactmanager_auth_seconds")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"users\"")))
+                .andExpect(content().string(containsString("hikaricp_connections")));
+    }
+}
@@ -0,0 +1,90 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactBatchOperation;
+import com.mmcneil.contactmanager.model.ContactBatchOperation.Type;
+import com.mmcneil.contactmanager.model.ContactBatchResult;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContactBatchServiceTest {
+
+    private final ContactRepository contactRepository = Mockito.mock(ContactRepository.class);
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    private final ApplicationEventPublisher eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+    private final ContactBatchService batchService = new ContactBatchService(
+        contactRepository, userRepository, Validation.buildDefaultValidatorFactory().getValidator(), eventPublisher);
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setUsername("alice");
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+    }
+
+    @Test
+    @DisplayName("Should return a result per operation in request order")
+    void returnsResultsInRequestOrder() {
+        Contact existing = new Contact(10L, "Bob", "bob@example.com", "555-555-5555");
+        Contact doomed = new Contact(11L, "Carol", "carol@example.com", "111-222-3333");
+        when(contactRepository.findByUserIdAndIdIn(eq(1L), anyCollection())).thenReturn(List.of(existing, doomed));
+        when(contactRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Contact> contacts = invocation.getArgument(0);
+            contacts.forEach(c -> c.setId(100L));
+            return contacts;
+        });
+
+        List<ContactBatchResult> results = batchService.apply(1L, List.of(
+            new ContactBatchOperation(Type.CREATE, null, "Dave", "dave@example.com", "999-999-9999"),
+            new ContactBatchOperation(Type.UPDATE, 10L, "Bobby", "bobby@example.com", "555-555-0000"),
+            new ContactBatchOperation(Type.DELETE, 11L, null, null, null),
+            new ContactBatchOperation(Type.DELETE, 42L, null, null, null),
+            new ContactBatchOperation(Type.CREATE, null, "", "not-an-email", "")
+        ));
+
+        assertThat(results).extracting(ContactBatchResult::status).containsExactly(201, 200, 204, 404, 400);
+        assertThat(results.get(0).id()).isEqualTo(100L);
+        assertThat(results.get(4).error()).contains("name", "email", "phone");
+        assertThat(existing.getName()).isEqualTo("Bobby");
+        verify(contactRepository).saveAll(argThat((List<Contact> contacts) ->
+            contacts.size() == 1 && contacts.get(0).getUser() == user));
+        verify(contactRepository).deleteAll(List.of(doomed));
+        verify(eventPublisher).publishEvent(ContactChangedEvent.created(1L, new Contact(100L, "Dave", "dave@example.com", "999-999-9999")));
+        verify(eventPublisher).publishEvent(ContactChangedEvent.updated(1L, existing));
+        verify(eventPublisher).publishEvent(ContactChangedEvent.deleted(1L, 11L));
+    }
+
+    @Test
+    @DisplayName("Should delete a contact only once when a batch names it twice")
+    void deletesContactOnlyOnce() {
+        Contact doomed = new Contact(11L, "Carol", "carol@example.com", "111-222-3333");
+        when(contactRepository.findByUserIdAndIdIn(eq(1L), anyCollection())).thenReturn(List.of(doomed));
+
+        List<ContactBatchResult> results = batchService.apply(1L, List.of(
+            new ContactBatchOperation(Type.DELETE, 11L, null, null, null),
+            new ContactBatchOperation(Type.DELETE, 11L, null, null, null)
+        ));
+
+        assertThat(results).extracting(ContactBatchResult::status).containsExactly(204, 404);
+    }
+}
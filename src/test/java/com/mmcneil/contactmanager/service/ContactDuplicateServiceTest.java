@@ -0,0 +1,121 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactDuplicateGroup;
+import com.mmcneil.contactmanager.model.ContactMergeRequest;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({ContactDuplicateService.class, ContactService.class, PhoneNumberNormalizer.class})
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class ContactDuplicateServiceTest {
+
+    @Autowired
+    private ContactDuplicateService duplicateService;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("deduper");
+        owner.setEmail("deduper@example.com");
+        owner.setPassword("pass");
+        owner.setRoles(Set.of("user"));
+        userRepository.save(owner);
+    }
+
+    @Test
+    @DisplayName("Should store duplicate groups from a scan and replace them on rescan")
+    void scansAndStoresGroups() {
+        Contact alice = add("Alice", "alice@example.com", "555-123-4567");
+        Contact aliceWork = add("Alice W", "alice.work@example.com", "(555) 123-4567");
+        add("Bob", "bob@example.com", "555-999-8888");
+
+        assertThat(duplicateService.scanUser(owner.getId())).isEqualTo(1);
+        List<ContactDuplicateGroup> groups = duplicateService.findGroups(owner.getId());
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0).groupId()).isEqualTo(alice.getId());
+        assertThat(groups.get(0).contacts()).extracting(ContactView::id).containsExactly(alice.getId(), aliceWork.getId());
+
+        assertThat(duplicateService.scanUser(owner.getId())).isEqualTo(1);
+        assertThat(duplicateService.findGroups(owner.getId())).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should merge sources into the target and drop the resolved group")
+    void mergesContacts() {
+        Contact alice = add("Alice", "alice@example.com", "555-123-4567");
+        Contact aliceWork = add("Alice W", "alice.work@example.com", "(555) 123-4567");
+        duplicateService.scanUser(owner.getId());
+
+        ContactView merged = duplicateService.merge(owner.getId(),
+            new ContactMergeRequest(alice.getId(), List.of(aliceWork.getId()), null, "alice.work@example.com", null))
+            .orElseThrow();
+
+        assertThat(merged.email()).isEqualTo("alice.work@example.com");
+        assertThat(merged.name()).isEqualTo("Alice");
+        assertThat(contactRepository.findById(aliceWork.getId())).isEmpty();
+        assertThat(duplicateService.findGroups(owner.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should refuse merges across owners or into an invalid contact")
+    void rejectsBadMerges() {
+        Contact alice = add("Alice", "alice@example.com", "555-123-4567");
+        User other = new User();
+        other.setUsername("other");
+        other.setEmail("other@example.com");
+        other.setPassword("pass");
+        other.setRoles(Set.of("user"));
+        userRepository.save(other);
+        Contact foreign = new Contact("Alice", "alice@example.com", "555-123-4567");
+        foreign.setUser(other);
+        contactRepository.save(foreign);
+
+        assertThat(duplicateService.merge(owner.getId(),
+            new ContactMergeRequest(alice.getId(), List.of(foreign.getId()), null, null, null))).isEmpty();
+        assertThatThrownBy(() -> duplicateService.merge(owner.getId(),
+            new ContactMergeRequest(alice.getId(), List.of(), null, null, null)))
+            .isInstanceOf(IllegalArgumentException.class);
+        Contact second = add("Alicia", "alicia@example.com", "555-000-1111");
+        assertThatThrownBy(() -> duplicateService.merge(owner.getId(),
+            new ContactMergeRequest(alice.getId(), List.of(second.getId()), null, "not-an-email", null)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Contact add(String name, String email, String phone) {
+        Contact contact = new Contact(name, email, phone);
+        contact.setUser(owner);
+        contactRepository.save(contact);
+        entityManager.flush();
+        return contact;
+    }
+}
@@ -0,0 +1,92 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.importer.CsvContactReader;
+import com.mmcneil.contactmanager.model.ContactImportResult;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(ContactImportService.class)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class ContactImportServiceTest {
+
+    @Autowired
+    private ContactImportService importService;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("Should import valid rows across several chunks and report invalid ones")
+    void importsInChunks() throws IOException {
+        User owner = new User();
+        owner.setUsername("importer");
+        owner.setEmail("importer@example.com");
+        owner.setPassword("pass");
+        owner.setRoles(Set.of("user"));
+        userRepository.save(owner);
+
+        int rows = ContactImportService.CHUNK_SIZE * 2 + 10;
+        StringBuilder csv = new StringBuilder("name,email,phone\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Contact ").append(i).append(",contact").append(i).append("@example.com,555-000-").append(i).append('\n');
+        }
+        csv.append(",not-an-email,555-000-0000\n");
+
+        ContactImportResult result = importService.importContacts(owner.getId(), new CsvContactReader(new StringReader(csv.toString())));
+
+        assertThat(result.processed()).isEqualTo(rows + 1);
+        assertThat(result.imported()).isEqualTo(rows);
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.errors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(rows + 2);
+            assertThat(error.message()).contains("name", "email");
+        });
+        assertThat(contactRepository.findByUserId(owner.getId())).hasSize(rows);
+        assertThat(result.fatalError()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should keep the rows before a fatal error and report where the file broke off")
+    void reportsPartialImportOnFatalError() throws IOException {
+        User owner = new User();
+        owner.setUsername("partial");
+        owner.setEmail("partial@example.com");
+        owner.setPassword("pass");
+        owner.setRoles(Set.of("user"));
+        userRepository.save(owner);
+
+        int rows = ContactImportService.CHUNK_SIZE + 5;
+        StringBuilder csv = new StringBuilder("name,email,phone\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append("Contact ").append(i).append(",contact").append(i).append("@example.com,555-000-").append(i).append('\n');
+        }
+        csv.append("\"Unterminated,broken@example.com,555-000-0000\n");
+
+        ContactImportResult result = importService.importContacts(owner.getId(), new CsvContactReader(new StringReader(csv.toString())));
+
+        assertThat(result.processed()).isEqualTo(rows);
+        assertThat(result.imported()).isEqualTo(rows);
+        assertThat(result.fatalError()).isNotNull();
+        assertThat(result.fatalError().line()).isEqualTo(rows + 2);
+        assertThat(result.fatalError().message()).contains("Unterminated");
+        assertThat(contactRepository.findByUserId(owner.getId())).hasSize(rows);
+    }
+}
@@ -0,0 +1,117 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactList;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContactListCacheTest {
+
+    private final ContactRepository contactRepository = Mockito.mock(ContactRepository.class);
+    private final UserRepository userRepository = Mockito.mock(UserRepository.class);
+    private final ContactListCache listCache = new ContactListCache(
+        new ContactService(contactRepository, userRepository, Mockito.mock(ApplicationEventPublisher.class)),
+        DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+
+    @Test
+    void get_loadsListOncePerUser() {
+        when(userRepository.findContactsVersion(1L)).thenReturn(Optional.of(4L));
+        when(contactRepository.findViewsByUserId(1L))
+            .thenReturn(List.of(new ContactView(10L, "Alice", "alice@example.com", "555-0100")));
+
+        ContactList list = listCache.get(1L);
+        assertThat(list.revision()).isEqualTo(4L);
+        assertThat(list.contacts()).containsExactly(new ContactView(10L, "Alice", "alice@example.com", "555-0100"));
+        assertThat(listCache.get(1L).contacts()).hasSize(1);
+
+        verify(contactRepository, times(1)).findViewsByUserId(1L);
+    }
+
+    @Test
+    void onContactsCommitted_patchesLoadedListsAndIgnoresOthers() {
+        when(userRepository.findContactsVersion(1L)).thenReturn(Optional.of(1L));
+        when(contactRepository.findViewsByUserId(1L)).thenReturn(List.of(
+            new ContactView(10L, "Alice", "alice@example.com", "555-0100"),
+            new ContactView(11L, "Bob", "bob@example.com", "555-0101")));
+        listCache.get(1L);
+
+        listCache.onContactsCommitted(new ContactRevisionEvent(1L, 2, List.of(
+            ContactChangedEvent.deleted(1L, 10L),
+            ContactChangedEvent.updated(1L, new Contact(11L, "Robert", "bob@example.com", "555-0101")),
+            ContactChangedEvent.created(1L, new Contact(12L, "Carol", "carol@example.com", "555-0102")))));
+        // No list for user 2 yet, so nothing is loaded for it
+        listCache.onContactsCommitted(new ContactRevisionEvent(2L, 1, List.of(
+            ContactChangedEvent.created(2L, new Contact(13L, "Zed", "zed@example.com", "555-0103")))));
+
+        ContactList list = listCache.get(1L);
+        assertThat(list.revision()).isEqualTo(2L);
+        assertThat(list.contacts()).extracting(ContactView::name).containsExactly("Robert", "Carol");
+        assertThat(listCache.getCache().getIfPresent(2L)).isNull();
+        verify(contactRepository, times(1)).findViewsByUserId(1L);
+    }
+
+    @Test
+    void onContactsCommitted_ignoresOldRevisionsAndReloadsOnAGap() {
+        when(userRepository.findContactsVersion(1L)).thenReturn(Optional.of(5L));
+        when(contactRepository.findViewsByUserId(1L)).thenReturn(
+            List.of(new ContactView(10L, "Alice", "alice@example.com", "555-0100")),
+            List.of(new ContactView(10L, "Alicia", "alice@example.com", "555-0100")));
+        listCache.get(1L);
+
+        // Already reflected by the loaded list
+        listCache.onContactsCommitted(new ContactRevisionEvent(1L, 5, List.of(ContactChangedEvent.deleted(1L, 10L))));
+        assertThat(listCache.get(1L).contacts()).extracting(ContactView::name).containsExactly("Alice");
+
+        // Revision 6 never arrived
+        when(userRepository.findContactsVersion(1L)).thenReturn(Optional.of(7L));
+        listCache.onContactsCommitted(new ContactRevisionEvent(1L, 7, List.of(
+            ContactChangedEvent.updated(1L, new Contact(10L, "Alicia", "alice@example.com", "555-0100")))));
+        assertThat(listCache.getCache().getIfPresent(1L)).isNull();
+
+        ContactList list = listCache.get(1L);
+        assertThat(list.revision()).isEqualTo(7L);
+        assertThat(list.contacts()).extracting(ContactView::name).containsExactly("Alicia");
+        verify(contactRepository, times(2)).findViewsByUserId(1L);
+    }
+
+    @Test
+    void get_reloadsListBehindTheDatabase() {
+        when(userRepository.findContactsVersion(1L)).thenReturn(Optional.of(3L));
+        when(contactRepository.findViewsByUserId(1L)).thenReturn(
+            List.of(new ContactView(10L, "Alice", "alice@example.com", "555-0100")),
+            List.of(new ContactView(10L, "Alicia", "alice@example.com", "555-0100")));
+        listCache.get(1L);
+
+        // Committed on another instance, so no event reached this cache
+        when(userRepository.findContactsVersion(1L)).thenReturn(Optional.of(4L));
+        ContactList list = listCache.get(1L);
+
+        assertThat(list.revision()).isEqualTo(4L);
+        assertThat(list.contacts()).extracting(ContactView::name).containsExactly("Alicia");
+        assertThat(listCache.get(1L, 2L).contacts()).extracting(ContactView::name).containsExactly("Alicia");
+        verify(contactRepository, times(2)).findViewsByUserId(1L);
+    }
+
+    @Test
+    void snapshot_weightGrowsWithTheStringsItHolds() {
+        ContactListSnapshot empty = ContactListSnapshot.of(0, List.of());
+        ContactListSnapshot one = ContactListSnapshot.of(0, List.of(new ContactView(1L, "Alice", "a@example.com", "555")));
+
+        assertThat(empty.weight()).isPositive();
+        assertThat(one.weight() - empty.weight()).isEqualTo(8 + 3 * 4 + (40 + 5) + (40 + 13) + (40 + 3));
+    }
+}
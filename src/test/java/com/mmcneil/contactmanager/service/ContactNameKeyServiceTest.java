@@ -0,0 +1,116 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.ContactNameKeyRepository;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(ContactNameKeyService.class)
+class ContactNameKeyServiceTest {
+
+    @Autowired
+    private ContactNameKeyService nameKeyService;
+
+    @Autowired
+    private ContactNameKeyRepository nameKeyRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("fuzzy");
+        owner.setEmail("fuzzy@example.com");
+        owner.setPassword("pass");
+        owner.setRoles(Set.of("user"));
+        userRepository.save(owner);
+    }
+
+    @Test
+    @DisplayName("Should backfill keys and find misspelled names, closest first")
+    void backfillAndSearch() {
+        add("John Smith");
+        add("Jane Smithers");
+        add("Bob Jones");
+
+        assertThat(nameKeyService.backfill()).isEqualTo(3);
+        assertThat(nameKeyService.backfill()).isZero();
+
+        assertThat(nameKeyService.search(owner.getId(), "Jon Smyth", 10))
+            .extracting(ContactView::name).first().isEqualTo("John Smith");
+        assertThat(nameKeyService.search(owner.getId(), "jonez", 10))
+            .extracting(ContactView::name).containsExactly("Bob Jones");
+        assertThat(nameKeyService.search(owner.getId(), "Zelda", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should replace a contact's keys when it is renamed")
+    void replacesKeysOnUpdate() {
+        Contact contact = add("Catherine Zeta");
+        nameKeyService.onContactChanged(ContactChangedEvent.created(owner.getId(), contact));
+
+        contact.setName("Kathryn Ziegler");
+        nameKeyService.onContactChanged(ContactChangedEvent.updated(owner.getId(), contact));
+
+        assertThat(nameKeyService.search(owner.getId(), "Zeta", 10)).isEmpty();
+        assertThat(nameKeyService.search(owner.getId(), "Katherine", 10))
+            .extracting(ContactView::name).containsExactly("Kathryn Ziegler");
+        assertThat(nameKeyRepository.findAll()).allMatch(key -> key.getUserId().equals(owner.getId()));
+    }
+
+    @Test
+    @DisplayName("Should drop a contact's keys when it is deleted")
+    void removesKeysOnDelete() {
+        Contact contact = add("Catherine Zeta");
+        nameKeyService.onContactChanged(ContactChangedEvent.created(owner.getId(), contact));
+
+        contactRepository.deleteByIdAndUserId(contact.getId(), owner.getId());
+        nameKeyService.onContactChanged(ContactChangedEvent.deleted(owner.getId(), contact.getId()));
+
+        assertThat(nameKeyRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep the best-matching contacts when a common key matches more than the candidate limit")
+    void keepsBestCandidatesPastLimit() {
+        for (int i = 0; i < ContactNameKeyService.MAX_CANDIDATES; i++) {
+            add("John Doe");
+        }
+        add("John Smith");
+        nameKeyService.backfill();
+
+        assertThat(nameKeyService.search(owner.getId(), "John Smith", 1))
+            .extracting(ContactView::name).containsExactly("John Smith");
+    }
+
+    @Test
+    void keys_coverWordsAndSoundsAndFoldAccents() {
+        assertThat(NameKeys.keys("José Smith")).contains("T:jose", "T:smith", "P:SM0", "P:XMT");
+        assertThat(NameKeys.levenshtein("smyth", "smith")).isEqualTo(1);
+    }
+
+    private Contact add(String name) {
+        Contact contact = new Contact(name, "x@example.com", "555-0100");
+        contact.setUser(owner);
+        return contactRepository.save(contact);
+    }
+}
@@ -0,0 +1,106 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import({ContactPhoneService.class, PhoneNumberNormalizer.class})
+class ContactPhoneServiceTest {
+
+    @Autowired
+    private ContactPhoneService phoneService;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("caller");
+        owner.setEmail("caller@example.com");
+        owner.setPassword("pass");
+        owner.setRoles(Set.of("user"));
+        userRepository.save(owner);
+    }
+
+    @Test
+    @DisplayName("Should normalize phones on write and find contacts by any format of the number")
+    void normalizesAndLooksUp() {
+        Contact alice = add("Alice", "(555) 123-4567");
+        add("Bob", "+44 20 7946 0958");
+        add("Nobody", "call me maybe");
+        entityManager.flush();
+
+        assertThat(alice.getPhoneE164()).isEqualTo("+15551234567");
+        assertThat(phoneService.findByPhone(owner.getId(), "+15551234567"))
+            .extracting(ContactView::name).containsExactly("Alice");
+        assertThat(phoneService.findByPhone(owner.getId(), "+442079460958"))
+            .extracting(ContactView::name).containsExactly("Bob");
+        assertThat(phoneService.findByPhone(owner.getId(), "+15550000000")).isEmpty();
+        assertThatThrownBy(() -> phoneService.findByPhone(owner.getId(), "not a number"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should keep a loaded index in step with committed changes")
+    void appliesChanges() {
+        Contact alice = add("Alice", "555-123-4567");
+        entityManager.flush();
+        assertThat(phoneService.findByPhone(owner.getId(), "5551234567")).hasSize(1);
+
+        alice.setPhone("555-765-4321");
+        entityManager.flush();
+        phoneService.onContactChanged(ContactChangedEvent.updated(owner.getId(), alice));
+
+        assertThat(phoneService.findByPhone(owner.getId(), "5551234567")).isEmpty();
+        assertThat(phoneService.findByPhone(owner.getId(), "5557654321")).hasSize(1);
+
+        phoneService.onContactChanged(ContactChangedEvent.deleted(owner.getId(), alice.getId()));
+        assertThat(phoneService.findByPhone(owner.getId(), "5557654321")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should backfill numbers for rows written without one")
+    void backfills() {
+        Contact alice = add("Alice", "555-123-4567");
+        add("Nobody", "call me maybe");
+        entityManager.flush();
+        entityManager.createNativeQuery("update contact set phone_e164 = null").executeUpdate();
+        entityManager.clear();
+
+        assertThat(phoneService.backfill()).isEqualTo(1);
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(contactRepository.findById(alice.getId())).get()
+            .extracting(Contact::getPhoneE164).isEqualTo("+15551234567");
+    }
+
+    private Contact add(String name, String phone) {
+        Contact contact = new Contact(name, "x@example.com", phone);
+        contact.setUser(owner);
+        return contactRepository.save(contact);
+    }
+}
@@ -0,0 +1,48 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.ContactView;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContactPrefixIndexTest {
+
+    private final ContactView alice = new ContactView(1L, "Alice Smith", "alice@acme.com", "(555) 123-4567");
+    private final ContactView bob = new ContactView(2L, "Bob Jones", "bob@example.com", "555-987-6543");
+    private final ContactView carol = new ContactView(3L, "Carol Smithers", "carol@acme.com", "+1 212 555 0100");
+
+    private final ContactPrefixIndex index = new ContactPrefixIndex(List.of(alice, bob, carol));
+
+    @Test
+    void search_matchesNameWordEmailAndPhonePrefixes() {
+        assertThat(index.search("ali", 10)).containsExactly(alice);
+        assertThat(index.search("SMITH", 10)).containsExactly(alice, carol);
+        assertThat(index.search("carol@", 10)).containsExactly(carol);
+        assertThat(index.search("555-98", 10)).containsExactly(bob);
+        assertThat(index.search("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void search_returnsEachContactOnceAndHonoursLimit() {
+        ContactView bobby = new ContactView(4L, "Bob Bobson", "bob.b@example.com", "555-000-0000");
+        index.put(bobby);
+
+        assertThat(index.search("bob", 10)).containsExactlyInAnyOrder(bob, bobby);
+        assertThat(index.search("555", 2)).hasSize(2);
+    }
+
+    @Test
+    void put_replacesOldTermsAndRemoveDropsThem() {
+        ContactView renamed = new ContactView(1L, "Alicia Keys", "alicia@acme.com", "555-123-4567");
+        index.put(renamed);
+
+        assertThat(index.search("smith", 10)).containsExactly(carol);
+        assertThat(index.search("keys", 10)).containsExactly(renamed);
+
+        index.remove(1L);
+        assertThat(index.search("ali", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+}
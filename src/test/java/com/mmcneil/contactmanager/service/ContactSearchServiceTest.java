@@ -0,0 +1,93 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(ContactSearchService.class)
+class ContactSearchServiceTest {
+
+    @Autowired
+    private ContactSearchService searchService;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = save(user("searcher"));
+        User other = save(user("other"));
+
+        add(owner, "Sally Sales", "sally@acme.com", "555-100-2000");
+        add(owner, "Acme Support", "help@acme.com", "555-100-3000");
+        add(owner, "Bob Jones", "bob@example.com", "555-200-4000");
+        add(other, "Sam Sales", "sam@acme.com", "555-300-5000");
+    }
+
+    @Test
+    @DisplayName("Should require every word and rank name matches above email matches")
+    void ranksMatches() {
+        assertThat(searchService.search(owner.getId(), "acme sales", 10))
+            .extracting(ContactView::name).containsExactly("Sally Sales");
+
+        assertThat(searchService.search(owner.getId(), "acme", 10))
+            .extracting(ContactView::name).containsExactly("Acme Support", "Sally Sales");
+    }
+
+    @Test
+    @DisplayName("Should only search the user's own contacts and ignore punctuation-only queries")
+    void scopesToOwner() {
+        assertThat(searchService.search(owner.getId(), "sam", 10)).isEmpty();
+        assertThat(searchService.search(owner.getId(), "  --  ", 10)).isEmpty();
+        assertThat(searchService.search(owner.getId(), "jones", 1))
+            .extracting(ContactView::email).containsExactly("bob@example.com");
+    }
+
+    @Test
+    @DisplayName("Should find a formatted phone number from its digits alone")
+    void matchesPhoneDigits() {
+        add(owner, "Carol Call", "carol@example.com", "(555) 123-4567");
+
+        assertThat(searchService.search(owner.getId(), "5551234", 10))
+            .extracting(ContactView::name).containsExactly("Carol Call");
+        assertThat(searchService.search(owner.getId(), "1002000", 10))
+            .extracting(ContactView::name).containsExactly("Sally Sales");
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("pass");
+        user.setRoles(Set.of("user"));
+        return user;
+    }
+
+    private User save(User user) {
+        return userRepository.save(user);
+    }
+
+    private void add(User user, String name, String email, String phone) {
+        Contact contact = new Contact(name, email, phone);
+        contact.setUser(user);
+        contactRepository.save(contact);
+    }
+}
@@ -0,0 +1,47 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContactSuggestServiceTest {
+
+    private final ContactRepository contactRepository = Mockito.mock(ContactRepository.class);
+    private final ContactSuggestService suggestService = new ContactSuggestService(contactRepository, 100, Duration.ofMinutes(5));
+
+    @Test
+    void suggest_buildsIndexOncePerUser() {
+        when(contactRepository.findViewsByUserId(1L))
+            .thenReturn(List.of(new ContactView(10L, "Alice", "alice@example.com", "555-0100")));
+
+        assertThat(suggestService.suggest(1L, "al", 10)).extracting(ContactView::name).containsExactly("Alice");
+        assertThat(suggestService.suggest(1L, "alice@", 10)).hasSize(1);
+
+        verify(contactRepository, times(1)).findViewsByUserId(1L);
+    }
+
+    @Test
+    void onContactChanged_patchesLoadedIndexAndIgnoresOthers() {
+        when(contactRepository.findViewsByUserId(1L))
+            .thenReturn(List.of(new ContactView(10L, "Alice", "alice@example.com", "555-0100")));
+        suggestService.suggest(1L, "a", 10);
+
+        suggestService.onContactChanged(ContactChangedEvent.created(1L, new Contact(11L, "Alan", "alan@example.com", "555-0101")));
+        suggestService.onContactChanged(ContactChangedEvent.deleted(1L, 10L));
+        // No index for user 2 yet, so nothing is built for it
+        suggestService.onContactChanged(ContactChangedEvent.created(2L, new Contact(12L, "Zed", "zed@example.com", "555-0102")));
+
+        assertThat(suggestService.suggest(1L, "al", 10)).extracting(ContactView::name).containsExactly("Alan");
+        verify(contactRepository, times(0)).findViewsByUserId(2L);
+    }
+}
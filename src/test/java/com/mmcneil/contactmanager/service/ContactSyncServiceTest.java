@@ -0,0 +1,153 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.exception.SyncTokenExpiredException;
+import com.mmcneil.contactmanager.model.Contact;
+import com.mmcneil.contactmanager.model.ContactChanges;
+import com.mmcneil.contactmanager.model.ContactView;
+import com.mmcneil.contactmanager.model.User;
+import com.mmcneil.contactmanager.repository.ContactRepository;
+import com.mmcneil.contactmanager.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Revisions are stamped as a transaction commits, so each service call here commits on its own
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ContactSyncService.class, ContactService.class, ContactVersionService.class})
+@TestPropertySource(properties = "contactmanager.sync.tombstone-retention=0s")
+class ContactSyncServiceTest {
+
+    @Autowired
+    private ContactSyncService syncService;
+
+    @Autowired
+    private ContactService contactService;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = new User();
+        owner.setUsername("syncer");
+        owner.setEmail("syncer@example.com");
+        owner.setPassword("pass");
+        owner.setRoles(Set.of("user"));
+        userRepository.save(owner);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Tombstones are invisible to the repository, so clean up in SQL
+        jdbcTemplate.update("delete from contact");
+        jdbcTemplate.update("delete from user_roles");
+        jdbcTemplate.update("delete from users");
+    }
+
+    @Test
+    @DisplayName("Should return only what changed since the token, including deletes")
+    void returnsChangesSinceToken() {
+        Contact alice = contactService.create(owner.getId(), new Contact("Alice", "alice@example.com", "555-0001"));
+        Contact bob = contactService.create(owner.getId(), new Contact("Bob", "bob@example.com", "555-0002"));
+
+        ContactChanges initial = syncService.changesSince(owner.getId(), null, 100);
+        assertThat(initial.updated()).extracting(ContactView::name).containsExactly("Alice", "Bob");
+        assertThat(initial.deleted()).isEmpty();
+        assertThat(initial.hasMore()).isFalse();
+
+        contactService.update(alice.getId(), owner.getId(), new Contact("Alice B", "alice@example.com", "555-0001"));
+        contactService.delete(bob.getId(), owner.getId());
+
+        ContactChanges delta = syncService.changesSince(owner.getId(), initial.token(), 100);
+        assertThat(delta.updated()).extracting(ContactView::name).containsExactly("Alice B");
+        assertThat(delta.deleted()).containsExactly(bob.getId());
+        assertThat(contactRepository.findById(bob.getId())).isEmpty();
+
+        ContactChanges none = syncService.changesSince(owner.getId(), delta.token(), 100);
+        assertThat(none.updated()).isEmpty();
+        assertThat(none.deleted()).isEmpty();
+        assertThat(none.token()).isEqualTo(delta.token());
+    }
+
+    @Test
+    @DisplayName("Should page through changes with the returned token")
+    void pagesThroughChanges() {
+        for (int i = 0; i < 5; i++) {
+            contactService.create(owner.getId(), new Contact("Contact " + i, "c" + i + "@example.com", "555-000" + i));
+        }
+
+        ContactChanges first = syncService.changesSince(owner.getId(), null, 3);
+        assertThat(first.updated()).hasSize(3);
+        assertThat(first.hasMore()).isTrue();
+        ContactChanges second = syncService.changesSince(owner.getId(), first.token(), 3);
+        assertThat(second.updated()).extracting(ContactView::name).containsExactly("Contact 3", "Contact 4");
+        assertThat(second.hasMore()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should compact old tombstones and expire tokens that predate them")
+    void compactsTombstones() {
+        Contact alice = contactService.create(owner.getId(), new Contact("Alice", "alice@example.com", "555-0001"));
+        ContactChanges before = syncService.changesSince(owner.getId(), null, 100);
+        contactService.delete(alice.getId(), owner.getId());
+        ContactChanges after = syncService.changesSince(owner.getId(), before.token(), 100);
+
+        assertThat(syncService.compactTombstones()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from contact", Long.class)).isZero();
+        assertThatThrownBy(() -> syncService.changesSince(owner.getId(), before.token(), 100))
+            .isInstanceOf(SyncTokenExpiredException.class);
+        assertThat(syncService.changesSince(owner.getId(), after.token(), 100).deleted()).isEmpty();
+        assertThatThrownBy(() -> syncService.changesSince(owner.getId(), "not a token", 100))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should expire a token that stopped partway through the newest compacted revision")
+    void expiresTokenWithinCompactedRevision() {
+        Contact alice = contactService.create(owner.getId(), new Contact("Alice", "alice@example.com", "555-0001"));
+        Contact bob = contactService.create(owner.getId(), new Contact("Bob", "bob@example.com", "555-0002"));
+        ContactChanges before = syncService.changesSince(owner.getId(), null, 100);
+        // Both deletes share one revision
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            contactService.delete(alice.getId(), owner.getId());
+            contactService.delete(bob.getId(), owner.getId());
+        });
+        ContactChanges partway = syncService.changesSince(owner.getId(), before.token(), 1);
+        assertThat(partway.deleted()).containsExactly(alice.getId());
+        assertThat(partway.hasMore()).isTrue();
+        ContactChanges complete = syncService.changesSince(owner.getId(), partway.token(), 1);
+        assertThat(complete.deleted()).containsExactly(bob.getId());
+
+        assertThat(syncService.compactTombstones()).isEqualTo(2);
+        assertThatThrownBy(() -> syncService.changesSince(owner.getId(), partway.token(), 100))
+            .isInstanceOf(SyncTokenExpiredException.class);
+        assertThat(syncService.changesSince(owner.getId(), complete.token(), 100).deleted()).isEmpty();
+    }
+}
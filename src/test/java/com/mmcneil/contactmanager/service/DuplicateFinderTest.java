@@ -0,0 +1,51 @@
+package com.mmcneil.contactmanager.service;
+
+import com.mmcneil.contactmanager.model.ContactView;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DuplicateFinderTest {
+
+    private final DuplicateFinder finder = new DuplicateFinder(new PhoneNumberNormalizer("US")::toE164);
+
+    @Test
+    @DisplayName("Should group contacts sharing an email or phone, transitively")
+    void groupsByEmailAndPhone() {
+        List<List<ContactView>> groups = finder.findGroups(List.of(
+            new ContactView(1L, "Alice Smith", "alice@example.com", "555-123-4567"),
+            new ContactView(2L, "A. Smith", "ALICE@example.com ", "555-000-0000"),
+            new ContactView(3L, "Work Phone", "office@example.com", "+1 (555) 000-0000"),
+            new ContactView(4L, "Bob", "bob@example.com", "555-999-8888")));
+
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0)).extracting(ContactView::id).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should group similar-sounding names with a small edit distance only")
+    void groupsByPhoneticName() {
+        List<List<ContactView>> groups = finder.findGroups(List.of(
+            new ContactView(1L, "Jon Smith", "jon@example.com", "555-111-0001"),
+            new ContactView(2L, "John Smyth", "john@example.com", "555-111-0002"),
+            new ContactView(3L, "Jane Smithers", "jane@example.com", "555-111-0003")));
+
+        assertThat(groups).hasSize(1);
+        assertThat(groups.get(0)).extracting(ContactView::id).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should skip phonetic blocks too large to be meaningful")
+    void skipsOversizedBlocks() {
+        List<ContactView> contacts = new ArrayList<>();
+        for (int i = 0; i <= DuplicateFinder.MAX_PHONETIC_BLOCK; i++) {
+            contacts.add(new ContactView(i, "John Smith", "john" + i + "@example.com", "555-200-" + (1000 + i)));
+        }
+
+        assertThat(finder.findGroups(contacts)).isEmpty();
+    }
+}
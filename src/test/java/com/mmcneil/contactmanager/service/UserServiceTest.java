@@ -2,12 +2,19 @@ package com.mmcneil.contactmanager.service;
 
 import com.mmcneil.contactmanager.exception.UsernameAlreadyExistsException;
 import com.mmcneil.contactmanager.model.RegistrationForm;
+import com.mmcneil.contactmanager.model.User;
 import com.mmcneil.contactmanager.repository.UserRepository;
+import com.mmcneil.contactmanager.security.AccessTokenService;
+import com.mmcneil.contactmanager.security.CustomUserDetailsService;
+
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -17,11 +24,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest {
     @Mock private UserRepository userRepository;
     @Mock private PasswordEncoder passwordEncoder;
+    @Mock private CustomUserDetailsService userDetailsService;
+    @Mock private AccessTokenService tokenService;
     @InjectMocks
     private UserService userService;
 
@@ -61,4 +72,53 @@ public class UserServiceTest {
         assertThrows(UsernameAlreadyExistsException.class, () -> userService.registerUser(form));
         verify(userRepository, never()).save(any());
     }
+
+    @Test
+    void changePassword_evictsCachedUserAndRevokesTokens() {
+        User user = new User();
+        user.setId(3L);
+        user.setUsername("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode("newPassword")).thenReturn("encodedNew");
+
+        userService.changePassword("Alice", "newPassword");
+
+        verify(userRepository).save(argThat(saved -> saved.getPassword().equals("encodedNew")));
+        verify(userDetailsService).evict("alice");
+        verify(tokenService).revokeAll(3L);
+    }
+
+    @Test
+    void updateRoles_evictsCachedUser() {
+        User user = new User();
+        user.setId(3L);
+        user.setUsername("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+
+        userService.updateRoles("alice", Set.of("USER", "ADMIN"));
+
+        verify(userRepository).save(argThat(saved -> saved.getRoles().contains("ADMIN")));
+        verify(userDetailsService).evict("alice");
+    }
+
+    @Test
+    void changePassword_invalidatesOnlyAfterCommit() {
+        User user = new User();
+        user.setId(3L);
+        user.setUsername("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        when(passwordEncoder.encode("newPassword")).thenReturn("encodedNew");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.changePassword("alice", "newPassword");
+            verifyNoInteractions(userDetailsService, tokenService);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(userDetailsService).evict("alice");
+        verify(tokenService).revokeAll(3L);
+    }
 }